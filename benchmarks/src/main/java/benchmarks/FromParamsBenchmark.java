@@ -0,0 +1,58 @@
+package benchmarks;
+
+import core.Vurlp;
+import core.VurlpOptional;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing, binding and validating via {@link Vurlp#fromParams(String)} and {@link Vurlp#fromParams(Map)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FromParamsBenchmark {
+
+    @Param({"SHORT_ID", "LONG_UTF8_SEARCH", "TRACKING", "MANY_FIELDS", "INVALID"})
+    private Workload workload;
+
+    private Vurlp<?> vurlp;
+    private String query;
+    private Map<String, String> params;
+
+    @Setup
+    public void setUp() {
+        this.vurlp = this.workload.newVurlp();
+        this.query = this.workload.getQuery();
+        this.params = this.workload.getParams();
+    }
+
+    @Benchmark
+    public VurlpOptional<?> fromParamsString() {
+        return this.vurlp.fromParams(this.query);
+    }
+
+    /**
+     * The map is read-only, {@code fromParams(Map)} never writes to it.
+     */
+    @Benchmark
+    public VurlpOptional<?> fromParamsMap() {
+        return this.vurlp.fromParams(this.params);
+    }
+
+}
@@ -0,0 +1,27 @@
+package benchmarks;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * Typical lookup endpoint: an ASCII id and a page.
+ */
+public class IdParams {
+
+    @NotNull(message = "'id' must not be null")
+    @Size(max = 64, message = "'id' must not be longer than 64 characters")
+    private String id;
+
+    @Min(value = 1, message = "'page' must be >=1")
+    private int page = 1;
+
+    public String getId() {
+        return this.id;
+    }
+
+    public int getPage() {
+        return this.page;
+    }
+
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import core.Vurlp;
+import core.VurlpOptional;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Percent-decoding and -encoding of a single value through {@link Vurlp#fromParams(String)} and
+ * {@link Vurlp#toParams(Object)}, next to the JDK's {@link URLDecoder} and {@link URLEncoder} as baseline. Binding
+ * the same query without URL encoding shows how much of {@code decode} is spent outside the codec.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PercentCodecBenchmark {
+
+    @Param({"8d3f2a1c-77b0-4e25-9d0f-1b6c5a0e4f21", "running shoes size 42", "Grüße aus München – Flüge nach Zürich ✈"})
+    private String text;
+
+    private Vurlp<TextParams> vurlp;
+    private Vurlp<TextParams> vurlpWithoutEncoding;
+    private String encoded;
+    private String query;
+    private TextParams params;
+
+    @Setup
+    public void setUp() throws UnsupportedEncodingException {
+        this.vurlp = new Vurlp<>(TextParams.class);
+        this.vurlpWithoutEncoding = new Vurlp<>(TextParams.class, false);
+        this.encoded = URLEncoder.encode(this.text, "UTF-8");
+        this.query = "?text=" + this.encoded;
+        this.params = this.vurlp.fromParams(this.query).get();
+    }
+
+    @Benchmark
+    public VurlpOptional<TextParams> decode() {
+        return this.vurlp.fromParams(this.query);
+    }
+
+    @Benchmark
+    public VurlpOptional<TextParams> decodeWithoutEncoding() {
+        return this.vurlpWithoutEncoding.fromParams(this.query);
+    }
+
+    @Benchmark
+    public String decodeUrlDecoder() throws UnsupportedEncodingException {
+        return URLDecoder.decode(this.encoded, "UTF-8");
+    }
+
+    @Benchmark
+    public VurlpOptional<String> encode() {
+        return this.vurlp.toParams(this.params);
+    }
+
+    @Benchmark
+    public String encodeUrlEncoder() throws UnsupportedEncodingException {
+        return URLEncoder.encode(this.text, "UTF-8");
+    }
+
+}
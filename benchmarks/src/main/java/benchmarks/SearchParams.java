@@ -0,0 +1,62 @@
+package benchmarks;
+
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+/**
+ * Typical search endpoint with a free text query and a dozen paging and filter parameters.
+ */
+public class SearchParams {
+
+    @NotNull(message = "'q' must not be null")
+    @Size(max = 512, message = "'q' must not be longer than 512 characters")
+    private String q;
+
+    @Min(value = 1, message = "'page' must be >=1")
+    private int page = 1;
+
+    @Min(value = 1, message = "'size' must be >=1")
+    @Max(value = 100, message = "'size' must be <=100")
+    private int size = 20;
+
+    @Pattern(regexp = "relevance|price|date", message = "'sort' must be one of relevance, price, date")
+    private String sort;
+
+    @DecimalMin(value = "0", message = "'minPrice' must be >=0")
+    private Double minPrice;
+
+    @DecimalMin(value = "0", message = "'maxPrice' must be >=0")
+    private Double maxPrice;
+
+    private String category;
+    private String brand;
+    private String color;
+    private Boolean inStock;
+    private Long sellerId;
+
+    @Pattern(regexp = "[a-z]{2}", message = "'lang' must be a two letter language code")
+    private String lang;
+
+    @Pattern(regexp = "[A-Z]{3}", message = "'currency' must be a three letter currency code")
+    private String currency;
+
+    @Min(value = 0, message = "'radius' must be >=0")
+    private Integer radius;
+
+    public String getQ() {
+        return this.q;
+    }
+
+    public int getPage() {
+        return this.page;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+}
@@ -0,0 +1,14 @@
+package benchmarks;
+
+/**
+ * A single free-text value without constraints, so that binding it costs little more than decoding it.
+ */
+public class TextParams {
+
+    private String text;
+
+    public String getText() {
+        return this.text;
+    }
+
+}
@@ -0,0 +1,48 @@
+package benchmarks;
+
+import core.Vurlp;
+import core.VurlpOptional;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validating and serializing via {@link Vurlp#toParams(Object)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ToParamsBenchmark {
+
+    @Param({"SHORT_ID", "LONG_UTF8_SEARCH", "MANY_FIELDS"})
+    private Workload workload;
+
+    private Vurlp<Object> vurlp;
+    private Object object;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        this.vurlp = (Vurlp<Object>) this.workload.newVurlp();
+        this.object = this.vurlp.fromParams(this.workload.getQuery()).get();
+    }
+
+    @Benchmark
+    public VurlpOptional<String> toParams() {
+        return this.vurlp.toParams(this.object);
+    }
+
+}
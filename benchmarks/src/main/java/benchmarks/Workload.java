@@ -0,0 +1,81 @@
+package benchmarks;
+
+import core.Vurlp;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The inputs all benchmarks run against. Each workload is a query string plus the class it is bound to.
+ */
+public enum Workload {
+
+    /**
+     * Short ASCII id lookup, the most common request.
+     */
+    SHORT_ID(IdParams.class, "?id=8d3f2a1c-77b0-4e25-9d0f-1b6c5a0e4f21&page=2"),
+
+    /**
+     * Long percent-encoded UTF-8 search query plus tracking parameters which aren't bound.
+     */
+    LONG_UTF8_SEARCH(SearchParams.class, "?q=" + encodedSearchText() + "&page=3&size=50&lang=de"
+            + "&utm_source=newsletter&utm_medium=email&utm_campaign=autumn_sale_2024&utm_content=hero_banner"),
+
+    /**
+     * Mostly tracking parameters, which make up much of real traffic and are looked up only to be dropped.
+     */
+    TRACKING(SearchParams.class, "?q=shoes&utm_source=newsletter&utm_medium=email&utm_campaign=autumn_sale_2024"
+            + "&utm_term=running&utm_content=hero_banner&gclid=EAIaIQobChMI8dWq2&fbclid=IwAR3x9Zk&_ga=2.1337.42"
+            + "&mc_cid=5f2a1c&mc_eid=9d0f1b"),
+
+    /**
+     * Every field of a many-field POJO is set.
+     */
+    MANY_FIELDS(SearchParams.class, "?q=running+shoes&page=2&size=40&sort=price&minPrice=19.99&maxPrice=149.5"
+            + "&category=sports&brand=acme&color=blue&inStock=true&sellerId=4711&lang=en&currency=EUR&radius=25"),
+
+    /**
+     * Bot traffic which violates several constraints.
+     */
+    INVALID(SearchParams.class, "?page=0&size=1000&sort=random&minPrice=-1&lang=english&currency=euro&radius=-5");
+
+    private final Class<?> clazz;
+    private final String query;
+
+    Workload(final Class<?> clazz, final String query) {
+        this.clazz = clazz;
+        this.query = query;
+    }
+
+    public Vurlp<?> newVurlp() {
+        return new Vurlp<>(this.clazz);
+    }
+
+    public String getQuery() {
+        return this.query;
+    }
+
+    /**
+     * The query string as it would come from a servlet container: split, but not yet decoded.
+     */
+    public Map<String, String> getParams() {
+        final Map<String, String> params = new HashMap<>();
+        for (final String pair : this.query.substring(1).split("&")) {
+            final String[] split = pair.split("=", 2);
+            params.put(split[0], split.length > 1 ? split[1] : null);
+        }
+        return Collections.unmodifiableMap(params);
+    }
+
+    private static String encodedSearchText() {
+        try {
+            return java.net.URLEncoder.encode("Grüße aus München – günstige Flüge nach Zürich und Genève ✈, "
+                    + "Übernachtung im Hotel „Zum Löwen“ für 2 Erwachsene, Frühstück inklusive, "
+                    + "Anreise ab 24.10., Größe der Zimmer ≥ 25 m²", "UTF-8");
+        } catch (final java.io.UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+}
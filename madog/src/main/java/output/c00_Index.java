@@ -29,17 +29,33 @@ public class c00_Index extends Output {
                 "annotations. So instead of handling strings we get type-safe object representations.");
 
         Print.wrapped("You need to create a `vurlp` instance for every class which shall represent URL parameters. Additional " +
-                "constructors can set your own GSON implementation and disable URL encoding/decoding. See " +
+                "constructors can set your own GSON implementation, your own `Validator` or `ValidatorFactory` and disable " +
+                "URL encoding/decoding. By default all instances share one lazily created `Validator`, see " +
+                "`ValidatorRegistry`. `Vurlp.forClass(YourType.class)` returns a cached, fully prepared instance per class " +
+                "and configuration, `Vurlp.warmUp(...)` prepares them at startup. Annotate a class with `@VurlpBindable` to " +
+                "have a binder generated for it at compile time, which creates instances and accesses fields without " +
+                "reflection. See " +
                 "" + Ref.internalPath("/src/test/java/core/VurlpTest.java", "Tests") + " for usage examples. " +
                 "See " +
                 "" + Ref.internalPath("/src/test/java/assets/TestPojo.java", "TestPojo.java") + " for a simple POJO to " +
                 "represent URL parameters.");
 
-        Print.wrapped("Use `.toParams(String value)` to convert a POJO into an URL query string. " +
+        Print.wrapped("Use `.toParams(String value)` to convert a POJO into an URL query string, or " +
+                "`.toParams(value, Appendable)` and `.toParams(value, ByteBuffer)` to write it into a destination. " +
                 "Use `.fromParams(Map<String,String> urlParamsAsMap)` or `.fromParams(String urlParamsAsString)` to map " +
                 "URL parameters or a URL query string to your POJO. All these methods return an `VurlpOptional<YourType>`, " +
-                "which works similar to a standard `Optional`. If the URL parameters don't comply to the defined validations then " +
-                "the violations can be retrieved via `.getViolations()`." +
+                "which works similar to a standard `Optional` and offers `map`, `flatMap`, `filter` and `ifValidOrElse`. If the URL parameters don't comply to the defined validations then " +
+                "the violations can be retrieved via `.getViolations()`. Array and collection fields bind to repeated " +
+                "parameters like `ids=1&ids=2`, or with `@CommaSeparated` to `ids=1,2`. Fields of other POJO types and " +
+                "`Map<String, V>` fields bind to nested names like `filter.price.min=10`, `filter[price][min]=10` or " +
+                "`attrs[color]=red`, annotate them with `@Valid` to validate them as well. Maps are never modified, " +
+                "`.fromParameterMap(Map<String,String[]>)` takes several values per name. Query strings can also be " +
+                "parsed in place from any `CharSequence`, a `char[]` range or a `ByteBuffer`. `.fromParamsBatch(queries)` " +
+                "parses a whole list or stream of them, optionally in parallel, into a `BatchResult` with a bitmap of " +
+                "the valid ones. `new QueryLogProcessor<>(vurlp).process(path)` validates a whole file of URLs or query " +
+                "strings on all cores and counts violations per constraint and values per parameter, " +
+                "`new MappedQueryReader<>(vurlp).read(path, valid, invalid)` streams files larger than the heap " +
+                "through a mapped window and hands invalid lines with their offsets to a side output." +
                 "\n\n" +
                 "Example:");
 
@@ -0,0 +1,114 @@
+package core;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Read-only {@link CharSequence} view of ASCII bytes in a {@link ByteBuffer}, one byte per char. This lets the
+ * tokenizer and {@link PercentCodec} work on a query as it came off the network, escapes are decoded from the bytes
+ * and only the substrings of bound values are ever copied. The buffer's position and limit are never changed.
+ */
+final class AsciiByteSequence implements CharSequence {
+
+    private static final String ASCII_SAMPLE = "?&=%+.-_*[]azAZ09";
+    private static final byte[] ASCII_SAMPLE_BYTES = ASCII_SAMPLE.getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteBuffer bytes;
+    private final int offset;
+    private final int length;
+
+    private AsciiByteSequence(final ByteBuffer bytes, final int offset, final int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Returns the bytes from {@code position} to {@code limit} of {@code bytes} as chars. The view is only created if
+     * they are all ASCII and {@code charset} encodes ASCII as single bytes, as UTF-8 and ISO-8859-1 do. Otherwise
+     * the bytes are decoded with {@code charset} into a new sequence.
+     */
+    static CharSequence of(final ByteBuffer bytes, final Charset charset) {
+        return of(bytes, bytes.position(), bytes.limit(), charset);
+    }
+
+    /**
+     * Like {@link #of(ByteBuffer, Charset)} for the bytes from {@code start} to {@code end}, regardless of the
+     * buffer's position and limit.
+     */
+    static CharSequence of(final ByteBuffer bytes, final int start, final int end, final Charset charset) {
+        return isAsciiCompatible(charset)
+                ? ofAsciiCompatible(bytes, start, end, charset)
+                : decode(bytes, start, end, charset);
+    }
+
+    /**
+     * Like {@link #of(ByteBuffer, int, int, Charset)} for a {@code charset} already known to be ASCII-compatible, see
+     * {@link #isAsciiCompatible}, so readers check it once instead of for every line.
+     */
+    static CharSequence ofAsciiCompatible(final ByteBuffer bytes, final int start, final int end,
+                                          final Charset charset) {
+        int position = start;
+        while (position < end && bytes.get(position) >= 0) {
+            position++;
+        }
+        return position == end ? new AsciiByteSequence(bytes, start, end - start) : decode(bytes, start, end, charset);
+    }
+
+    /**
+     * Returns whether {@code charset} encodes ASCII as single bytes, as UTF-8 and ISO-8859-1 do, so that ASCII bytes
+     * can be read as chars without decoding.
+     */
+    static boolean isAsciiCompatible(final Charset charset) {
+        if (charset == StandardCharsets.UTF_8 || charset == StandardCharsets.US_ASCII
+                || charset == StandardCharsets.ISO_8859_1) {
+            return true;
+        }
+        return charset.canEncode() && Arrays.equals(ASCII_SAMPLE.getBytes(charset), ASCII_SAMPLE_BYTES);
+    }
+
+    private static CharSequence decode(final ByteBuffer bytes, final int start, final int end, final Charset charset) {
+        final ByteBuffer range = bytes.duplicate();
+        // Through Buffer, as ByteBuffer only overrides these from Java 9 on
+        ((Buffer) range).limit(end).position(start);
+        return charset.decode(range);
+    }
+
+    @Override
+    public int length() {
+        return this.length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= this.length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + this.length);
+        }
+        return (char) this.bytes.get(this.offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        if (start < 0 || end > this.length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + this.length);
+        }
+        return new AsciiByteSequence(this.bytes, this.offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        if (this.bytes.hasArray()) {
+            return new String(this.bytes.array(), this.bytes.arrayOffset() + this.offset, this.length,
+                    StandardCharsets.ISO_8859_1);
+        }
+        final char[] chars = new char[this.length];
+        for (int i = 0; i < this.length; i++) {
+            chars[i] = (char) this.bytes.get(this.offset + i);
+        }
+        return new String(chars);
+    }
+
+}
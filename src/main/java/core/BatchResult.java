@@ -0,0 +1,119 @@
+package core;
+
+import javax.validation.ConstraintViolation;
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Outcome of {@link Vurlp#fromParamsBatch(List)}, in columns instead of one {@link VurlpOptional} per query: a bitmap
+ * of the valid queries and one slot per query holding either the object or its violations. Indices are those of the
+ * queries in the batch.
+ */
+public final class BatchResult<T> {
+
+    private final Object[] results;
+    private final BitSet valid;
+    private final int validCount;
+
+    BatchResult(final Object[] results, final BitSet valid) {
+        this.results = results;
+        this.valid = valid;
+        this.validCount = valid.cardinality();
+    }
+
+    /**
+     * Returns the number of queries in the batch.
+     */
+    public int size() {
+        return this.results.length;
+    }
+
+    /**
+     * Returns the number of queries which produced a valid object.
+     */
+    public int getValidCount() {
+        return this.validCount;
+    }
+
+    /**
+     * Returns whether the query at {@code index} produced a valid object.
+     */
+    public boolean isValid(final int index) {
+        this.checkIndex(index);
+        return this.valid.get(index);
+    }
+
+    /**
+     * Returns the object of the query at {@code index}.
+     *
+     * @throws NoSuchElementException if the query was invalid
+     */
+    public T get(final int index) {
+        if (!this.isValid(index)) {
+            throw new NoSuchElementException("Query " + index + " is invalid");
+        }
+        @SuppressWarnings("unchecked") final T value = (T) this.results[index];
+        return value;
+    }
+
+    /**
+     * Returns the violations of the query at {@code index}, which are empty if it was valid.
+     */
+    public Set<ConstraintViolation<?>> getViolations(final int index) {
+        if (this.isValid(index)) {
+            return Collections.emptySet();
+        }
+        @SuppressWarnings("unchecked") final Set<ConstraintViolation<?>> violations =
+                (Set<ConstraintViolation<?>>) this.results[index];
+        return Collections.unmodifiableSet(violations);
+    }
+
+    /**
+     * Returns the result of the query at {@code index} as {@link Vurlp#fromParams(String)} would have.
+     */
+    public VurlpOptional<T> toOptional(final int index) {
+        if (this.isValid(index)) {
+            return VurlpOptional.of(this.get(index));
+        }
+        @SuppressWarnings("unchecked") final Set<ConstraintViolation<T>> violations =
+                (Set<ConstraintViolation<T>>) this.results[index];
+        return VurlpOptional.invalid(violations);
+    }
+
+    /**
+     * Returns a copy of the bitmap of valid queries.
+     */
+    public BitSet getValidBitmap() {
+        return (BitSet) this.valid.clone();
+    }
+
+    /**
+     * Returns a read-only view of the valid objects in batch order.
+     */
+    public List<T> getValidObjects() {
+        return new AbstractList<T>() {
+            private final int[] indices = BatchResult.this.valid.stream().toArray();
+
+            @Override
+            public T get(final int index) {
+                return BatchResult.this.get(this.indices[index]);
+            }
+
+            @Override
+            public int size() {
+                return this.indices.length;
+            }
+        };
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= this.results.length) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + this.results.length);
+        }
+    }
+
+}
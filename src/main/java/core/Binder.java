@@ -0,0 +1,76 @@
+package core;
+
+/**
+ * Creates instances of {@code T}, reads and writes their fields and converts their values without reflection.
+ * Implementations are generated by {@link BinderProcessor} for classes annotated with {@link VurlpBindable}.
+ * Fields of type {@code String}, primitives and their wrappers, {@code BigDecimal}, {@code BigInteger} and enums, and
+ * arrays and collections of those, are parsed from and formatted to parameter values by generated code. Naming,
+ * decoding, nested and map fields and validation stay with {@link Vurlp}.
+ *
+ * @param <T> the class representing URL parameters
+ */
+public interface Binder<T> {
+
+    /**
+     * Suffix of generated binders, which are named after the binary name of their class with {@code '$'} replaced
+     * by {@code '_'}, e.g. {@code com.example.Outer_Inner_VurlpBinder}.
+     */
+    String SUFFIX = "_VurlpBinder";
+
+    T newInstance();
+
+    /**
+     * @return the Java names of all fields this binder can access, the position is the index used by
+     * {@link #set(Object, int, Object)} and {@link #get(Object, int)}
+     */
+    String[] fieldNames();
+
+    void set(T target, int index, Object value);
+
+    Object get(T source, int index);
+
+    /**
+     * Assigns a primitive field without boxing. The {@code bits} are the value widened to {@code long} for
+     * integral types and {@code char}, {@code 0} or {@code 1} for {@code boolean},
+     * {@link Float#floatToRawIntBits(float)} for {@code float} and {@link Double#doubleToRawLongBits(double)} for
+     * {@code double}.
+     */
+    void setBits(T target, int index, long bits);
+
+    /**
+     * Reads a primitive field without boxing, as bits like {@link #setBits(Object, int, long)} takes them.
+     */
+    long getBits(T source, int index);
+
+    /**
+     * Returns whether the values of the field at {@code index}, or its elements for arrays and collections, are
+     * converted by {@link #convert}, {@link #convertBits}, {@link #format} and {@link #appendBits}.
+     */
+    boolean converts(int index);
+
+    /**
+     * Converts the decoded parameter value in {@code source[start, end)} to the type of the field at
+     * {@code index}, or to its element type. Primitives are boxed. Returns {@code null} for unknown enum constants.
+     */
+    Object convert(int index, CharSequence source, int start, int end);
+
+    /**
+     * Like {@link #convert} for a field whose type or element type is a primitive or its wrapper, returning bits
+     * like {@link #setBits(Object, int, long)} takes them.
+     */
+    long convertBits(int index, CharSequence source, int start, int end);
+
+    /**
+     * Returns the non-null {@code value} of the field at {@code index}, or one of its elements, as parameter value
+     * before percent-encoding.
+     */
+    String format(int index, Object value);
+
+    /**
+     * Appends the primitive value of the field at {@code index}, or one of its elements, given as bits like
+     * {@link #getBits(Object, int)} returns them. It is percent-encoded if needed and {@code shouldUseUrlEncoding}
+     * is set.
+     */
+    void appendBits(int index, long bits, StringBuilder out, boolean shouldUseUrlEncoding);
+
+}
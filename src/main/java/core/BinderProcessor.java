@@ -0,0 +1,647 @@
+package core;
+
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.annotations.SerializedName;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@link Binder} for every class annotated with {@link VurlpBindable}. Fields are selected like Gson
+ * does by default: all non-static, non-transient fields of the class and its superclasses. Non-private fields are
+ * accessed directly, private ones through their getter and setter, as generated code can't read them otherwise.
+ * <p>
+ * Besides creating instances and accessing fields by index, the generated code parses and formats the values of
+ * every field of a type listed in {@link Binder}: a {@code switch} over the field index calls the matching
+ * {@link BinderSupport} routine, and enum constants are matched against their serialized names, which are read from
+ * {@code @SerializedName} at compile time. Fields annotated with {@code @JsonAdapter} or of an enum annotated with
+ * it, and fields of any other type, are left to the {@link BindingPlan}.
+ */
+public class BinderProcessor extends AbstractProcessor {
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(VurlpBindable.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final Element element : roundEnv.getElementsAnnotatedWith(VurlpBindable.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                this.error(element, "@VurlpBindable is only allowed on classes");
+                continue;
+            }
+            try {
+                this.generate((TypeElement) element);
+            } catch (final IOException e) {
+                this.error(element, "Failed to write binder: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private void generate(final TypeElement type) throws IOException {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)
+                || type.getModifiers().contains(Modifier.PRIVATE)
+                || (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC))) {
+            this.error(type, "@VurlpBindable classes must be concrete, non-private and not an inner class");
+            return;
+        }
+        if (!this.hasAccessibleNoArgConstructor(type)) {
+            this.error(type, "@VurlpBindable classes need a non-private no-arg constructor");
+            return;
+        }
+
+        final List<Accessor> accessors = new ArrayList<>();
+        final Set<String> names = new HashSet<>();
+        for (TypeElement current = type; current != null; current = this.superclassOf(current)) {
+            for (final VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                final String name = field.getSimpleName().toString();
+                if (!names.add(name)) {
+                    this.error(type, "Field '" + name + "' is declared more than once in the class hierarchy");
+                    return;
+                }
+                final Accessor accessor = this.accessorFor(type, current, field);
+                if (accessor == null) {
+                    this.error(field, "Field '" + name + "' is private and has no non-private getter and setter");
+                    return;
+                }
+                accessors.add(accessor);
+            }
+        }
+
+        this.write(type, accessors);
+    }
+
+    private Accessor accessorFor(final TypeElement type, final TypeElement declaringType, final VariableElement field) {
+        final String name = field.getSimpleName().toString();
+        final TypeMirror fieldType = field.asType();
+        final String boxedType = this.boxedName(fieldType);
+        final Conversion conversion = this.conversionFor(field);
+
+        final boolean sameClass = declaringType.equals(type);
+        if (!field.getModifiers().contains(Modifier.PRIVATE) && !field.getModifiers().contains(Modifier.FINAL)
+                && (sameClass || this.isAccessibleFromPackageOf(field, type))) {
+            return new Accessor(name, fieldType.getKind(), boxedType, "target." + name + " = %s;", "source." + name,
+                    conversion);
+        }
+
+        final String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        final ExecutableElement setter = this.findMethod(declaringType, "set" + capitalized, fieldType);
+        ExecutableElement getter = this.findMethod(declaringType, "get" + capitalized, null);
+        if (getter == null && fieldType.getKind() == TypeKind.BOOLEAN) {
+            getter = this.findMethod(declaringType, "is" + capitalized, null);
+        }
+        if (setter == null || getter == null) {
+            return null;
+        }
+        return new Accessor(name, fieldType.getKind(), boxedType, "target." + setter.getSimpleName() + "(%s);",
+                "source." + getter.getSimpleName() + "()", conversion);
+    }
+
+    /**
+     * Returns how the values of {@code field}, or its elements for arrays and collections, are converted, or
+     * {@code null} if the binding plan converts them.
+     */
+    private Conversion conversionFor(final VariableElement field) {
+        if (field.getAnnotation(JsonAdapter.class) != null) {
+            return null;
+        }
+        final TypeMirror type = field.asType();
+        if (type.getKind() == TypeKind.ARRAY) {
+            return this.valueConversionFor(((ArrayType) type).getComponentType());
+        }
+        final Types types = this.processingEnv.getTypeUtils();
+        final TypeMirror collectionType = types.erasure(
+                this.processingEnv.getElementUtils().getTypeElement(Collection.class.getName()).asType());
+        if (type.getKind() == TypeKind.DECLARED && types.isAssignable(types.erasure(type), collectionType)) {
+            final List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+            if (arguments.size() != 1) {
+                return null;
+            }
+            TypeMirror elementType = arguments.get(0);
+            if (elementType.getKind() == TypeKind.WILDCARD) {
+                elementType = ((WildcardType) elementType).getExtendsBound();
+            }
+            return elementType == null || elementType.getKind() != TypeKind.DECLARED
+                    ? null
+                    : this.valueConversionFor(elementType);
+        }
+        return this.valueConversionFor(type);
+    }
+
+    private Conversion valueConversionFor(final TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return new Conversion(type.getKind(), null, null);
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        final TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        final String name = element.getQualifiedName().toString();
+        if (name.equals(String.class.getName())
+                || name.equals(BigDecimal.class.getName())
+                || name.equals(BigInteger.class.getName())) {
+            return new Conversion(TypeKind.DECLARED, name, null);
+        }
+        if (element.getKind() == ElementKind.ENUM) {
+            if (element.getAnnotation(JsonAdapter.class) != null) {
+                return null;
+            }
+            final List<EnumConstant> constants = new ArrayList<>();
+            for (final Element enclosed : element.getEnclosedElements()) {
+                if (enclosed.getKind() == ElementKind.ENUM_CONSTANT) {
+                    constants.add(new EnumConstant(enclosed.getSimpleName().toString(),
+                            enclosed.getAnnotation(SerializedName.class)));
+                }
+            }
+            return new Conversion(TypeKind.DECLARED, name, constants);
+        }
+        try {
+            final PrimitiveType primitive = this.processingEnv.getTypeUtils().unboxedType(type);
+            return new Conversion(primitive.getKind(), null, null);
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private ExecutableElement findMethod(final TypeElement type, final String name, final TypeMirror parameterType) {
+        final Types types = this.processingEnv.getTypeUtils();
+        for (final ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (!method.getSimpleName().contentEquals(name)
+                    || method.getModifiers().contains(Modifier.PRIVATE)
+                    || method.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            if (parameterType == null
+                    ? method.getParameters().isEmpty() && method.getReturnType().getKind() != TypeKind.VOID
+                    : method.getParameters().size() == 1
+                    && types.isSameType(method.getParameters().get(0).asType(), parameterType)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasAccessibleNoArgConstructor(final TypeElement type) {
+        for (final ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isAccessibleFromPackageOf(final VariableElement field, final TypeElement type) {
+        if (field.getModifiers().contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        final Elements elements = this.processingEnv.getElementUtils();
+        return elements.getPackageOf(field).equals(elements.getPackageOf(type));
+    }
+
+    private TypeElement superclassOf(final TypeElement type) {
+        final TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        final TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals(Object.class.getName()) ? null : element;
+    }
+
+    private String boxedName(final TypeMirror type) {
+        final Types types = this.processingEnv.getTypeUtils();
+        if (type.getKind().isPrimitive()) {
+            return types.boxedClass(types.getPrimitiveType(type.getKind())).getQualifiedName().toString();
+        }
+        return types.erasure(type).toString();
+    }
+
+    private void write(final TypeElement type, final List<Accessor> accessors) throws IOException {
+        final Elements elements = this.processingEnv.getElementUtils();
+        final PackageElement packageElement = elements.getPackageOf(type);
+        final String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        final String binaryName = elements.getBinaryName(type).toString();
+        final String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_') + Binder.SUFFIX;
+        final String typeName = type.getQualifiedName().toString();
+
+        final StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n")
+                .append(" * Generated by {@link ").append(BinderProcessor.class.getName()).append("}, do not edit.\n")
+                .append(" */\n")
+                .append("public final class ").append(simpleName).append(" implements ")
+                .append(Binder.class.getName()).append('<').append(typeName).append("> {\n\n");
+
+        source.append("    private static final String[] FIELD_NAMES = {");
+        for (int i = 0; i < accessors.size(); i++) {
+            source.append(i == 0 ? "" : ", ").append('"').append(accessors.get(i).name).append('"');
+        }
+        source.append("};\n\n");
+
+        source.append("    @Override\n")
+                .append("    public ").append(typeName).append(" newInstance() {\n")
+                .append("        return new ").append(typeName).append("();\n")
+                .append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    public String[] fieldNames() {\n")
+                .append("        return FIELD_NAMES.clone();\n")
+                .append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    @SuppressWarnings(\"unchecked\")\n")
+                .append("    public void set(final ").append(typeName).append(" target, final int index, final Object value) {\n")
+                .append("        switch (index) {\n");
+        for (int i = 0; i < accessors.size(); i++) {
+            source.append("            case ").append(i).append(":\n")
+                    .append("                ").append(accessors.get(i).setStatement()).append('\n')
+                    .append("                return;\n");
+        }
+        source.append("            default:\n")
+                .append("                throw new IndexOutOfBoundsException(String.valueOf(index));\n")
+                .append("        }\n")
+                .append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    public Object get(final ").append(typeName).append(" source, final int index) {\n")
+                .append("        switch (index) {\n");
+        for (int i = 0; i < accessors.size(); i++) {
+            source.append("            case ").append(i).append(":\n")
+                    .append("                return ").append(accessors.get(i).getExpression).append(";\n");
+        }
+        source.append("            default:\n")
+                .append("                throw new IndexOutOfBoundsException(String.valueOf(index));\n")
+                .append("        }\n")
+                .append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    public void setBits(final ").append(typeName).append(" target, final int index, final long bits) {\n")
+                .append("        switch (index) {\n");
+        for (int i = 0; i < accessors.size(); i++) {
+            if (accessors.get(i).kind.isPrimitive()) {
+                source.append("            case ").append(i).append(":\n")
+                        .append("                ").append(accessors.get(i).setBitsStatement()).append('\n')
+                        .append("                return;\n");
+            }
+        }
+        source.append("            default:\n")
+                .append("                throw new IllegalArgumentException(\"No primitive field at index \" + index);\n")
+                .append("        }\n")
+                .append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    public long getBits(final ").append(typeName).append(" source, final int index) {\n")
+                .append("        switch (index) {\n");
+        for (int i = 0; i < accessors.size(); i++) {
+            if (accessors.get(i).kind.isPrimitive()) {
+                source.append("            case ").append(i).append(":\n")
+                        .append("                return ").append(accessors.get(i).getBitsExpression()).append(";\n");
+            }
+        }
+        source.append("            default:\n")
+                .append("                throw new IllegalArgumentException(\"No primitive field at index \" + index);\n")
+                .append("        }\n")
+                .append("    }\n\n");
+
+        this.writeConversions(source, accessors);
+        source.append("}\n");
+
+        final Filer filer = this.processingEnv.getFiler();
+        final String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try (Writer writer = filer.createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    /**
+     * Appends {@link Binder#converts}, {@link Binder#convert}, {@link Binder#convertBits}, {@link Binder#format}
+     * and {@link Binder#appendBits}, each a {@code switch} over the fields with a {@link Conversion}.
+     */
+    private void writeConversions(final StringBuilder source, final List<Accessor> accessors) {
+        source.append("    @Override\n")
+                .append("    public boolean converts(final int index) {\n")
+                .append("        switch (index) {\n");
+        boolean any = false;
+        for (int i = 0; i < accessors.size(); i++) {
+            if (accessors.get(i).conversion != null) {
+                source.append("            case ").append(i).append(":\n");
+                any = true;
+            }
+        }
+        if (any) {
+            source.append("                return true;\n");
+        }
+        source.append("            default:\n")
+                .append("                return false;\n")
+                .append("        }\n")
+                .append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    public Object convert(final int index, final CharSequence source, final int start, final int end) {\n")
+                .append("        switch (index) {\n");
+        for (int i = 0; i < accessors.size(); i++) {
+            final Conversion conversion = accessors.get(i).conversion;
+            if (conversion != null) {
+                source.append("            case ").append(i).append(":\n");
+                conversion.appendConvert(source);
+            }
+        }
+        appendNoConversion(source);
+
+        source.append("    @Override\n")
+                .append("    public long convertBits(final int index, final CharSequence source, final int start, final int end) {\n")
+                .append("        switch (index) {\n");
+        for (int i = 0; i < accessors.size(); i++) {
+            final Conversion conversion = accessors.get(i).conversion;
+            if (conversion != null && conversion.kind.isPrimitive()) {
+                source.append("            case ").append(i).append(":\n")
+                        .append("                return ").append(conversion.bitsExpression()).append(";\n");
+            }
+        }
+        appendNoConversion(source);
+
+        source.append("    @Override\n")
+                .append("    public String format(final int index, final Object value) {\n")
+                .append("        switch (index) {\n");
+        for (int i = 0; i < accessors.size(); i++) {
+            final Conversion conversion = accessors.get(i).conversion;
+            if (conversion != null) {
+                source.append("            case ").append(i).append(":\n");
+                conversion.appendFormat(source);
+            }
+        }
+        appendNoConversion(source);
+
+        source.append("    @Override\n")
+                .append("    public void appendBits(final int index, final long bits, final StringBuilder out,\n")
+                .append("                           final boolean shouldUseUrlEncoding) {\n")
+                .append("        switch (index) {\n");
+        for (int i = 0; i < accessors.size(); i++) {
+            final Conversion conversion = accessors.get(i).conversion;
+            if (conversion != null && conversion.kind.isPrimitive()) {
+                source.append("            case ").append(i).append(":\n")
+                        .append("                ").append(conversion.appendBitsStatement()).append('\n')
+                        .append("                return;\n");
+            }
+        }
+        appendNoConversion(source);
+    }
+
+    private static void appendNoConversion(final StringBuilder source) {
+        source.append("            default:\n")
+                .append("                throw new IllegalArgumentException(\"No converted field at index \" + index);\n")
+                .append("        }\n")
+                .append("    }\n\n");
+    }
+
+    /**
+     * Returns {@code value} as Java string literal.
+     */
+    private static String literal(final String value) {
+        final StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                literal.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7E) {
+                literal.append(String.format("\\u%04x", (int) c));
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private void error(final Element element, final String message) {
+        final Messager messager = this.processingEnv.getMessager();
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * How the generated code reads and writes one field. {@code setTemplate} is the assignment with {@code %s} in
+     * place of the value.
+     */
+    private static final class Accessor {
+
+        private final String name;
+        private final TypeKind kind;
+        private final String boxedType;
+        private final String setTemplate;
+        private final String getExpression;
+        private final Conversion conversion;
+
+        private Accessor(final String name, final TypeKind kind, final String boxedType, final String setTemplate,
+                         final String getExpression, final Conversion conversion) {
+            this.name = name;
+            this.kind = kind;
+            this.boxedType = boxedType;
+            this.setTemplate = setTemplate;
+            this.getExpression = getExpression;
+            this.conversion = conversion;
+        }
+
+        private String setStatement() {
+            return String.format(this.setTemplate, "(" + this.boxedType + ") value");
+        }
+
+        private String setBitsStatement() {
+            switch (this.kind) {
+                case BOOLEAN:
+                    return String.format(this.setTemplate, "bits != 0");
+                case FLOAT:
+                    return String.format(this.setTemplate, "Float.intBitsToFloat((int) bits)");
+                case DOUBLE:
+                    return String.format(this.setTemplate, "Double.longBitsToDouble(bits)");
+                case LONG:
+                    return String.format(this.setTemplate, "bits");
+                default:
+                    return String.format(this.setTemplate, "(" + this.kind.name().toLowerCase(Locale.ROOT) + ") bits");
+            }
+        }
+
+        private String getBitsExpression() {
+            switch (this.kind) {
+                case BOOLEAN:
+                    return "(" + this.getExpression + " ? 1L : 0L)";
+                case FLOAT:
+                    return "Float.floatToRawIntBits(" + this.getExpression + ")";
+                case DOUBLE:
+                    return "Double.doubleToRawLongBits(" + this.getExpression + ")";
+                default:
+                    return this.getExpression;
+            }
+        }
+
+    }
+
+    /**
+     * How the generated code parses and formats the values of one field, or its elements. {@code kind} is the
+     * primitive kind for primitives and their wrappers, {@code DECLARED} for {@code String}, {@code BigDecimal},
+     * {@code BigInteger} and enums, which have {@code constants}.
+     */
+    private static final class Conversion {
+
+        private static final String SUPPORT = BinderSupport.class.getName();
+
+        private final TypeKind kind;
+        private final String typeName;
+        private final List<EnumConstant> constants;
+
+        private Conversion(final TypeKind kind, final String typeName, final List<EnumConstant> constants) {
+            this.kind = kind;
+            this.typeName = typeName;
+            this.constants = constants;
+        }
+
+        private void appendConvert(final StringBuilder source) {
+            if (this.kind.isPrimitive()) {
+                source.append("                return ").append(this.parseExpression()).append(";\n");
+            } else if (this.constants != null) {
+                // Like Gson, a name bound twice goes to the last constant
+                final Map<String, String> constantsByName = new LinkedHashMap<>();
+                for (final EnumConstant constant : this.constants) {
+                    for (final String name : constant.names) {
+                        constantsByName.put(name, constant.constantName);
+                    }
+                }
+                for (final Map.Entry<String, String> entry : constantsByName.entrySet()) {
+                    source.append("                if (").append(SUPPORT).append(".matches(")
+                            .append(literal(entry.getKey())).append(", source, start, end)) {\n")
+                            .append("                    return ").append(this.typeName).append('.')
+                            .append(entry.getValue()).append(";\n")
+                            .append("                }\n");
+                }
+                source.append("                return null;\n");
+            } else if (this.typeName.equals(String.class.getName())) {
+                source.append("                return source.subSequence(start, end).toString();\n");
+            } else {
+                source.append("                return ").append(SUPPORT).append(".parse")
+                        .append(this.typeName.substring(this.typeName.lastIndexOf('.') + 1))
+                        .append("(source, start, end);\n");
+            }
+        }
+
+        private String parseExpression() {
+            final String kindName = this.kind.name().toLowerCase(Locale.ROOT);
+            return SUPPORT + ".parse" + Character.toUpperCase(kindName.charAt(0)) + kindName.substring(1)
+                    + "(source, start, end)";
+        }
+
+        private String bitsExpression() {
+            switch (this.kind) {
+                case BOOLEAN:
+                    return "(" + this.parseExpression() + " ? 1L : 0L)";
+                case FLOAT:
+                    return "Float.floatToRawIntBits(" + this.parseExpression() + ")";
+                case DOUBLE:
+                    return "Double.doubleToRawLongBits(" + this.parseExpression() + ")";
+                default:
+                    return this.parseExpression();
+            }
+        }
+
+        private void appendFormat(final StringBuilder source) {
+            if (this.kind == TypeKind.FLOAT) {
+                source.append("                return ").append(SUPPORT).append(".formatFloat((Float) value);\n");
+            } else if (this.kind == TypeKind.DOUBLE) {
+                source.append("                return ").append(SUPPORT).append(".formatDouble((Double) value);\n");
+            } else if (this.constants != null) {
+                for (final EnumConstant constant : this.constants) {
+                    source.append("                if (value == ").append(this.typeName).append('.')
+                            .append(constant.constantName).append(") {\n")
+                            .append("                    return ").append(literal(constant.names.get(0)))
+                            .append(";\n")
+                            .append("                }\n");
+                }
+                source.append("                return null;\n");
+            } else {
+                source.append("                return value.toString();\n");
+            }
+        }
+
+        private String appendBitsStatement() {
+            switch (this.kind) {
+                case BOOLEAN:
+                    return "out.append(bits != 0);";
+                case FLOAT:
+                    return SUPPORT + ".appendFloat(Float.intBitsToFloat((int) bits), out);";
+                case DOUBLE:
+                    return SUPPORT + ".appendDouble(Double.longBitsToDouble(bits), out);";
+                case CHAR:
+                    return SUPPORT + ".appendChar((char) bits, out, shouldUseUrlEncoding);";
+                case LONG:
+                    return "out.append(bits);";
+                default:
+                    return "out.append((" + this.kind.name().toLowerCase(Locale.ROOT) + ") bits);";
+            }
+        }
+
+    }
+
+    /**
+     * An enum constant with the names it is bound to, the serialized one first.
+     */
+    private static final class EnumConstant {
+
+        private final String constantName;
+        private final List<String> names = new ArrayList<>();
+
+        private EnumConstant(final String constantName, final SerializedName serializedName) {
+            this.constantName = constantName;
+            if (serializedName == null) {
+                this.names.add(constantName);
+            } else {
+                this.names.add(serializedName.value());
+                Collections.addAll(this.names, serializedName.alternate());
+            }
+        }
+
+    }
+
+}
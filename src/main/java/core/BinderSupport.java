@@ -0,0 +1,104 @@
+package core;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Parsing and formatting used by the code {@link BinderProcessor} generates. These are the same routines the
+ * built-in converters of {@link BindingPlan} use, so a generated {@link Binder} converts values exactly like Gson
+ * would, with the same exceptions for malformed values. Not meant to be called by anything else.
+ */
+public final class BinderSupport {
+
+    private BinderSupport() {
+    }
+
+    public static int parseInt(final CharSequence source, final int start, final int end) {
+        return Converters.parseInt(source, start, end);
+    }
+
+    public static long parseLong(final CharSequence source, final int start, final int end) {
+        return Converters.parseLong(source, start, end);
+    }
+
+    /**
+     * Parses an {@code int} and narrows it, like Gson does.
+     */
+    public static short parseShort(final CharSequence source, final int start, final int end) {
+        return (short) Converters.parseInt(source, start, end);
+    }
+
+    /**
+     * Parses an {@code int} and narrows it, like Gson does.
+     */
+    public static byte parseByte(final CharSequence source, final int start, final int end) {
+        return (byte) Converters.parseInt(source, start, end);
+    }
+
+    public static float parseFloat(final CharSequence source, final int start, final int end) {
+        return (float) Converters.parseDouble(source, start, end);
+    }
+
+    public static double parseDouble(final CharSequence source, final int start, final int end) {
+        return Converters.parseDouble(source, start, end);
+    }
+
+    public static boolean parseBoolean(final CharSequence source, final int start, final int end) {
+        return Converters.parseBoolean(source, start, end);
+    }
+
+    public static char parseChar(final CharSequence source, final int start, final int end) {
+        return Converters.parseChar(source, start, end);
+    }
+
+    public static BigDecimal parseBigDecimal(final CharSequence source, final int start, final int end) {
+        return Converters.parseBigDecimal(source.subSequence(start, end).toString());
+    }
+
+    public static BigInteger parseBigInteger(final CharSequence source, final int start, final int end) {
+        return Converters.parseBigInteger(source.subSequence(start, end).toString());
+    }
+
+    /**
+     * Returns whether {@code source[start, end)} equals {@code name}, e.g. an enum constant's serialized name.
+     */
+    public static boolean matches(final String name, final CharSequence source, final int start, final int end) {
+        return Converters.regionMatches(name, source, start, end);
+    }
+
+    /**
+     * Formats a finite {@code value}, NaN and infinity are rejected like Gson does.
+     */
+    public static String formatFloat(final float value) {
+        return Float.toString(Converters.checkValidFloatingPoint(value));
+    }
+
+    /**
+     * Formats a finite {@code value}, NaN and infinity are rejected like Gson does.
+     */
+    public static String formatDouble(final double value) {
+        return Double.toString(Converters.checkValidFloatingPoint(value));
+    }
+
+    /**
+     * Appends a finite {@code value}, NaN and infinity are rejected like Gson does.
+     */
+    public static void appendFloat(final float value, final StringBuilder out) {
+        out.append(Converters.checkValidFloatingPoint(value));
+    }
+
+    /**
+     * Appends a finite {@code value}, NaN and infinity are rejected like Gson does.
+     */
+    public static void appendDouble(final double value, final StringBuilder out) {
+        out.append(Converters.checkValidFloatingPoint(value));
+    }
+
+    /**
+     * Appends {@code value}, percent-encoded if needed and {@code shouldUseUrlEncoding} is set.
+     */
+    public static void appendChar(final char value, final StringBuilder out, final boolean shouldUseUrlEncoding) {
+        Converters.appendChar(value, out, shouldUseUrlEncoding);
+    }
+
+}
@@ -0,0 +1,829 @@
+package core;
+
+import com.google.gson.FieldNamingStrategy;
+import com.google.gson.Gson;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.annotations.SerializedName;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Field-by-field recipe for filling a {@code T} straight from URL parameters and for writing it back as query
+ * string. It is compiled once per {@link Vurlp} and replaces the {@code toJsonTree}/{@code fromJson} round trips.
+ * Field selection, naming and conversion follow what Gson's reflective adapter would do with a
+ * {@code Map<String, String>} tree.
+ * <p>
+ * If the class is annotated with {@link VurlpBindable}, instances are created, fields are accessed and values of
+ * the types listed in {@link Binder} are converted through the generated {@link Binder}. Otherwise
+ * {@link RuntimeAccessors} and the built-in {@link Converters} are used. Either way, setters are preferred over
+ * the fields and reflection is only used once, for reading the field metadata. Fields are read directly like Gson
+ * does, only a generated binder has to call the getter of a private field.
+ * <p>
+ * Fields of other bean types get a plan of their own and bind to nested names in dot or bracket notation, e.g.
+ * {@code filter.price.min=10} or {@code filter[price][min]=10}. Fields of type {@code Map<String, V>} bind to
+ * {@code name[key]=value}. A type that is already being compiled further up isn't nested again, so cyclic types
+ * fall back to a plain field.
+ * <p>
+ * Types annotated with {@code @JsonAdapter} are converted by their adapter like any other type Gson handles, and
+ * never become nested beans. Fields annotated with it are converted by the annotated {@code TypeAdapter} or
+ * {@code TypeAdapterFactory}.
+ */
+final class BindingPlan<T> {
+
+    private final Class<T> clazz;
+    private final Factory<T> factory;
+    private final FieldBinding[] fields;
+    private final Map<String, FieldBinding> fieldsByName;
+    private final NameIndex<FieldBinding> fieldsByChars;
+
+    private BindingPlan(final Class<T> clazz, final Factory<T> factory, final List<FieldBinding> fields,
+                        final Map<String, FieldBinding> fieldsByName) {
+        this.clazz = clazz;
+        this.factory = factory;
+        this.fields = fields.toArray(new FieldBinding[0]);
+        this.fieldsByName = fieldsByName;
+        this.fieldsByChars = NameIndex.of(fieldsByName);
+    }
+
+    /**
+     * Compiles the plan for {@code clazz}, or returns {@code null} if the class can't be bound without Gson,
+     * e.g. because it has no no-arg constructor, declares the same parameter name twice or has a
+     * {@code @JsonAdapter} of its own or one the plan can't use, see {@link Converters#forJsonAdapter}.
+     * {@code gson} must be configured like {@code new Gson()}, since fields are selected the way a default instance
+     * does it.
+     */
+    static <T> BindingPlan<T> of(final Class<T> clazz, final Gson gson) {
+        return of(clazz, gson, new HashSet<>());
+    }
+
+    private static <T> BindingPlan<T> of(final Class<T> clazz, final Gson gson, final Set<Class<?>> enclosing) {
+        if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers()) || clazz.isPrimitive()
+                || clazz.isAnnotationPresent(JsonAdapter.class)) {
+            return null;
+        }
+
+        final Binder<T> binder = binderFor(clazz);
+        final Factory<T> factory;
+        if (binder != null) {
+            factory = binder::newInstance;
+        } else {
+            try {
+                factory = RuntimeAccessors.factoryFor(clazz.getDeclaredConstructor());
+            } catch (final NoSuchMethodException | SecurityException e) {
+                return null;
+            }
+        }
+        final List<String> binderFieldNames = binder == null
+                ? Collections.<String>emptyList()
+                : Arrays.asList(binder.fieldNames());
+
+        final FieldNamingStrategy namingStrategy = gson.fieldNamingStrategy();
+        final List<FieldBinding> fields = new ArrayList<>();
+        final Map<String, FieldBinding> fieldsByName = new HashMap<>();
+
+        enclosing.add(clazz);
+        for (Class<?> raw = clazz; raw != null && raw != Object.class; raw = raw.getSuperclass()) {
+            for (final Field field : raw.getDeclaredFields()) {
+                if (isExcludedByDefault(field)) {
+                    continue;
+                }
+                // Field names are unique within a binder, the processor rejects shadowed fields
+                final int binderIndex = binderFieldNames.indexOf(field.getName());
+                final Accessor accessor = binderIndex < 0
+                        ? RuntimeAccessors.accessorFor(field)
+                        : binderAccessor(binder, binderIndex);
+
+                final List<String> names = namesOf(field, namingStrategy);
+                final JsonAdapter jsonAdapter = field.getAnnotation(JsonAdapter.class);
+                MultiValued multi = jsonAdapter == null ? MultiValued.of(field, gson) : null;
+                final Class<?> mapValueType = multi == null && jsonAdapter == null ? mapValueTypeOf(field) : null;
+                final Factory<Map<String, Object>> mapFactory = mapValueType == null ? null : mapFactoryFor(field);
+                final BindingPlan<?> nested = multi == null && mapFactory == null && jsonAdapter == null
+                        ? nestedPlanFor(field.getType(), gson, enclosing)
+                        : null;
+
+                Converter converter;
+                if (jsonAdapter != null) {
+                    converter = Converters.forJsonAdapter(jsonAdapter, field.getGenericType(), gson);
+                    if (converter == null) {
+                        enclosing.remove(clazz);
+                        return null;
+                    }
+                } else if (multi != null) {
+                    converter = multi.elementConverter;
+                } else if (mapFactory != null) {
+                    converter = Converters.forType(mapValueType, mapValueType, gson);
+                } else if (nested != null) {
+                    converter = null;
+                } else {
+                    converter = Converters.forField(field, gson);
+                }
+                if (binderIndex >= 0 && binder.converts(binderIndex)) {
+                    if (multi != null) {
+                        multi = multi.withElementConverter(binderConverter(binder, binderIndex, converter));
+                        converter = multi.elementConverter;
+                    } else if (jsonAdapter == null && mapFactory == null && nested == null
+                            && !field.getType().isArray() && !Collection.class.isAssignableFrom(field.getType())) {
+                        converter = binderConverter(binder, binderIndex, converter);
+                    }
+                }
+                final FieldBinding binding = new FieldBinding(fields.size(), names.get(0), field, accessor,
+                        converter, multi, mapFactory, nested);
+                for (final String name : names) {
+                    if (fieldsByName.put(name, binding) != null) {
+                        enclosing.remove(clazz);
+                        return null;
+                    }
+                }
+                fields.add(binding);
+            }
+        }
+        enclosing.remove(clazz);
+
+        return new BindingPlan<>(clazz, factory, fields, fieldsByName);
+    }
+
+    /**
+     * Converts the parameter {@code key=value} to its field type into {@code values}, without creating a {@code T}
+     * yet. {@code null} and, if {@code shouldDecode} is set, empty values are skipped, just like names that aren't
+     * bound, neither directly nor as nested name, see {@link #resolve}. Values are decoded right before they are
+     * converted, so a malformed escape is only noticed for bound parameters. The buffers are scratch space for
+     * decoding values and names. Once all parameters are converted, {@link Values#complete()} must be called.
+     *
+     * @throws PercentCodec.MalformedEscapeException if {@code shouldDecode} is set and the value of a bound
+     *                                               parameter has a malformed escape
+     */
+    void convert(final Values values, final String key, final String value, final boolean shouldDecode,
+                 final StringBuilder buffer, final StringBuilder keyBuffer) {
+        if (key == null || value == null || (shouldDecode && value.isEmpty())) {
+            return;
+        }
+        final FieldBinding binding = this.fieldsByName.get(key);
+        if (binding != null) {
+            if (binding.isLeaf()) {
+                values.convert(binding, value, 0, value.length(), shouldDecode, buffer);
+            }
+        } else if (KeyPath.isNestedCandidate(key, 0, key.length())
+                && this.resolve(key, 0, key.length(), shouldDecode, keyBuffer, null) != null) {
+            this.resolve(key, 0, key.length(), shouldDecode, keyBuffer, values)
+                    .convert(value, 0, value.length(), shouldDecode, buffer);
+        }
+    }
+
+    /**
+     * Returns empty {@link Values} for this plan, with all fields absent.
+     */
+    Values newValues() {
+        return new Values(this.fields);
+    }
+
+    /**
+     * Creates a {@code T} and assigns the converted {@code values}. Absent fields keep the value assigned by the
+     * constructor.
+     */
+    T instantiate(final Values values) {
+        final T instance = this.newInstance();
+        for (final FieldBinding binding : this.fields) {
+            final Object value = values.objects[binding.index];
+            if (value == Values.PRIMITIVE) {
+                binding.accessor.setBits(instance, values.bits[binding.index]);
+            } else if (value != Values.ABSENT) {
+                binding.set(instance, value);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Appends all non-null fields of {@code instance} as {@code name=value} pairs in declaration order. Empty
+     * strings are written as bare {@code name}.
+     */
+    void write(final T instance, final StringBuilder out, final boolean shouldUseUrlEncoding) {
+        this.write(instance, out, shouldUseUrlEncoding, true, null);
+    }
+
+    /**
+     * Appends the fields of {@code instance}, with names in bracket notation below {@code prefix} unless it is
+     * {@code null}. Returns whether anything was appended.
+     */
+    private boolean write(final Object instance, final StringBuilder out, final boolean shouldUseUrlEncoding,
+                          final boolean first, final String prefix) {
+        boolean written = false;
+        for (final FieldBinding binding : this.fields) {
+            if (binding.write(instance, out, shouldUseUrlEncoding, first && !written, prefix)) {
+                written = true;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Looks up the field bound to the parameter name in {@code source[start, end)} without creating a
+     * {@code String} for it. This costs one pass over the name, whether it is bound or not.
+     */
+    FieldBinding find(final CharSequence source, final int start, final int end) {
+        return this.fieldsByChars.get(source, start, end);
+    }
+
+    /**
+     * Resolves the nested parameter name in {@code key[start, end)} segment by segment, decoding it into
+     * {@code keyBuffer} first if {@code shouldDecode} is set and it has escapes. Returns {@code null} if the name
+     * isn't bound. The name must end at a field of a built-in type, at the key of a map field, or with {@code []}
+     * after a multi-valued field.
+     * <p>
+     * Without {@code values} nothing is created, which allows checking a name up front. With {@code values}, the
+     * nested values are created along the way, so the name must have been checked before.
+     */
+    Target resolve(CharSequence key, int start, int end, final boolean shouldDecode, final StringBuilder keyBuffer,
+                   final Values values) {
+        if (shouldDecode) {
+            try {
+                if (PercentCodec.needsDecoding(key, start, end)) {
+                    keyBuffer.setLength(0);
+                    PercentCodec.decodeTo(key, start, end, keyBuffer);
+                    key = keyBuffer;
+                    start = 0;
+                    end = keyBuffer.length();
+                }
+            } catch (final PercentCodec.MalformedEscapeException e) {
+                return null;
+            }
+        }
+
+        final KeyPath path = new KeyPath(key, start, end);
+        BindingPlan<?> plan = this;
+        Values current = values;
+        while (path.next()) {
+            final FieldBinding binding = plan.find(key, path.segmentStart(), path.segmentEnd());
+            if (binding == null) {
+                return null;
+            }
+            if (path.isLast()) {
+                return binding.isLeaf() ? new Target(current, binding, null) : null;
+            }
+            if (binding.nested != null) {
+                plan = binding.nested;
+                current = current == null ? null : current.nested(binding);
+                continue;
+            }
+            if (!path.next() || !path.isLast() || (binding.multi == null && binding.mapFactory == null)) {
+                return null;
+            }
+            if (binding.multi != null) {
+                return path.segmentStart() == path.segmentEnd() ? new Target(current, binding, null) : null;
+            }
+            if (path.segmentStart() == path.segmentEnd()) {
+                return null;
+            }
+            return new Target(current, binding, key.subSequence(path.segmentStart(), path.segmentEnd()).toString());
+        }
+        return null;
+    }
+
+    Class<T> getTargetClass() {
+        return this.clazz;
+    }
+
+    FieldBinding[] getFields() {
+        return this.fields;
+    }
+
+    T newInstance() {
+        return this.factory.newInstance();
+    }
+
+    /**
+     * Returns whether a {@code new Gson()} skips {@code field}: static, transient and synthetic fields and fields of
+     * anonymous or local classes. {@code @Expose}, {@code @Since}, {@code @Until} and exclusion strategies only count
+     * for a configured Gson, for which {@link Vurlp} never builds a plan.
+     */
+    private static boolean isExcludedByDefault(final Field field) {
+        final Class<?> type = field.getType();
+        return (field.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) != 0
+                || field.isSynthetic()
+                || (!Enum.class.isAssignableFrom(type) && (type.isAnonymousClass() || type.isLocalClass()));
+    }
+
+    /**
+     * Returns the {@link Binder} generated for {@code clazz} by {@link BinderProcessor}, or {@code null} if there
+     * is none.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Binder<T> binderFor(final Class<T> clazz) {
+        final String className = clazz.getName();
+        final int packageEnd = className.lastIndexOf('.') + 1;
+        final String binderName = className.substring(0, packageEnd)
+                + className.substring(packageEnd).replace('$', '_') + Binder.SUFFIX;
+        try {
+            final Class<?> binderClass = Class.forName(binderName, true, clazz.getClassLoader());
+            if (!Binder.class.isAssignableFrom(binderClass)) {
+                return null;
+            }
+            return (Binder<T>) binderClass.getDeclaredConstructor().newInstance();
+        } catch (final ReflectiveOperationException | LinkageError | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the plan for a field of type {@code type} bound to nested names, or {@code null} if the type isn't a
+     * bean of its own. Types with a {@code @JsonAdapter} get no plan, their adapter converts the whole value.
+     */
+    private static BindingPlan<?> nestedPlanFor(final Class<?> type, final Gson gson, final Set<Class<?>> enclosing) {
+        if (type.isPrimitive() || type.isArray() || type.isEnum() || Converters.isBuiltIn(type)
+                || Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)
+                || enclosing.contains(type)) {
+            return null;
+        }
+        final String name = type.getName();
+        if (name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("com.google.gson.")) {
+            return null;
+        }
+        return of(type, gson, enclosing);
+    }
+
+    /**
+     * Returns the value type of a {@code Map<String, V>} field with a built-in {@code V}, or {@code null}.
+     */
+    private static Class<?> mapValueTypeOf(final Field field) {
+        if (!Map.class.isAssignableFrom(field.getType()) || !(field.getGenericType() instanceof ParameterizedType)) {
+            return null;
+        }
+        final Type[] arguments = ((ParameterizedType) field.getGenericType()).getActualTypeArguments();
+        Type valueType = arguments[1];
+        if (valueType instanceof WildcardType) {
+            valueType = ((WildcardType) valueType).getUpperBounds()[0];
+        }
+        if (arguments[0] != String.class || !(valueType instanceof Class)
+                || !Converters.isBuiltIn((Class<?>) valueType)) {
+            return null;
+        }
+        return (Class<?>) valueType;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Factory<Map<String, Object>> mapFactoryFor(final Field field) {
+        final Class<?> type = field.getType();
+        if (type.isAssignableFrom(LinkedHashMap.class)) {
+            return LinkedHashMap::new;
+        }
+        if (type == SortedMap.class || type == NavigableMap.class) {
+            return TreeMap::new;
+        }
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        try {
+            return RuntimeAccessors.factoryFor((Constructor<Map<String, Object>>) type.getDeclaredConstructor());
+        } catch (final NoSuchMethodException | SecurityException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Accessor binderAccessor(final Binder<?> binder, final int index) {
+        final Binder<Object> untyped = (Binder<Object>) binder;
+        return new Accessor() {
+            @Override
+            public Object get(final Object instance) {
+                return untyped.get(instance, index);
+            }
+
+            @Override
+            public void set(final Object instance, final Object value) {
+                untyped.set(instance, index, value);
+            }
+
+            @Override
+            public long getBits(final Object instance) {
+                return untyped.getBits(instance, index);
+            }
+
+            @Override
+            public void setBits(final Object instance, final long bits) {
+                untyped.setBits(instance, index, bits);
+            }
+        };
+    }
+
+    /**
+     * Returns a converter for the field at {@code index} which uses the code generated into {@code binder} and
+     * otherwise behaves like the {@code builtIn} one.
+     */
+    @SuppressWarnings("unchecked")
+    private static Converter binderConverter(final Binder<?> binder, final int index, final Converter builtIn) {
+        final Binder<Object> untyped = (Binder<Object>) binder;
+        if (builtIn instanceof PrimitiveConverter) {
+            final PrimitiveConverter primitive = (PrimitiveConverter) builtIn;
+            return new PrimitiveConverter() {
+                @Override
+                long parse(final CharSequence source, final int start, final int end) {
+                    return untyped.convertBits(index, source, start, end);
+                }
+
+                @Override
+                Object box(final long bits) {
+                    return primitive.box(bits);
+                }
+
+                @Override
+                void append(final long bits, final StringBuilder out, final boolean shouldUseUrlEncoding) {
+                    untyped.appendBits(index, bits, out, shouldUseUrlEncoding);
+                }
+
+                @Override
+                public String format(final Object value) {
+                    return untyped.format(index, value);
+                }
+            };
+        }
+        return new Converter() {
+            @Override
+            public Object fromString(final String value) {
+                return untyped.convert(index, value, 0, value.length());
+            }
+
+            @Override
+            public Object fromChars(final CharSequence source, final int start, final int end) {
+                return untyped.convert(index, source, start, end);
+            }
+
+            @Override
+            public String format(final Object value) {
+                return untyped.format(index, value);
+            }
+        };
+    }
+
+    private static List<String> namesOf(final Field field, final FieldNamingStrategy namingStrategy) {
+        final List<String> names = new ArrayList<>();
+        final SerializedName annotation = field.getAnnotation(SerializedName.class);
+        if (annotation == null) {
+            names.add(namingStrategy.translateName(field));
+        } else {
+            names.add(annotation.value());
+            for (final String alternate : annotation.alternate()) {
+                names.add(alternate);
+            }
+        }
+        return names;
+    }
+
+    interface Factory<T> {
+        T newInstance();
+    }
+
+    /**
+     * Reads and writes one field, either through {@link RuntimeAccessors} or a generated {@link Binder}. Primitive
+     * fields can also be accessed without boxing, as raw bits in the format of {@link PrimitiveConverter}.
+     */
+    interface Accessor {
+        Object get(Object instance);
+
+        void set(Object instance, Object value);
+
+        long getBits(Object instance);
+
+        void setBits(Object instance, long bits);
+    }
+
+    /**
+     * Converted parameter values by {@link FieldBinding#index}. Values of primitive fields are kept as raw bits, so
+     * they are only boxed if someone asks for them via {@link #get(FieldBinding)}. Elements of multi-valued fields
+     * are collected until {@link #complete()} is called.
+     */
+    static final class Values {
+
+        private static final Object ABSENT = new Object();
+        private static final Object PRIMITIVE = new Object();
+
+        private final FieldBinding[] fields;
+        private final Object[] objects;
+        private final long[] bits;
+        private MultiValued.Accumulator[] accumulators;
+        private Values[] nested;
+
+        private Values(final FieldBinding[] fields) {
+            this.fields = fields;
+            this.objects = new Object[fields.length];
+            this.bits = new long[fields.length];
+            Arrays.fill(this.objects, ABSENT);
+        }
+
+        /**
+         * Converts the raw value in {@code source[start, end)} for {@code binding}, decoding it first if
+         * {@code shouldDecode} is set. A single value replaces any previous one, multi-valued fields get one element
+         * per comma-separated part (or just one without {@link CommaSeparated}) added.
+         */
+        void convert(final FieldBinding binding, final CharSequence source, final int start, final int end,
+                     final boolean shouldDecode, final StringBuilder buffer) {
+            if (binding.multi == null || !binding.multi.commaSeparated) {
+                this.convertPart(binding, source, start, end, shouldDecode, buffer);
+                return;
+            }
+            int partStart = start;
+            for (int position = start; position <= end; position++) {
+                if (position == end || source.charAt(position) == ',') {
+                    this.convertPart(binding, source, partStart, position, shouldDecode, buffer);
+                    partStart = position + 1;
+                }
+            }
+        }
+
+        private void convertPart(final FieldBinding binding, final CharSequence source, final int start,
+                                 final int end, final boolean shouldDecode, final StringBuilder buffer) {
+            if (shouldDecode && PercentCodec.needsDecoding(source, start, end)) {
+                buffer.setLength(0);
+                PercentCodec.decodeTo(source, start, end, buffer);
+                this.convertDecoded(binding, buffer, 0, buffer.length());
+            } else {
+                this.convertDecoded(binding, source, start, end);
+            }
+        }
+
+        private void convertDecoded(final FieldBinding binding, final CharSequence source, final int start,
+                                    final int end) {
+            final int index = binding.index;
+            if (binding.multi != null) {
+                if (start == end) {
+                    return;
+                }
+                if (this.accumulators == null) {
+                    this.accumulators = new MultiValued.Accumulator[this.objects.length];
+                }
+                if (this.accumulators[index] == null) {
+                    this.accumulators[index] = binding.multi.newAccumulator();
+                }
+                if (binding.multi.primitive != null) {
+                    this.accumulators[index].addBits(binding.multi.primitive.parse(source, start, end));
+                } else {
+                    final Object element = binding.converter.fromChars(source, start, end);
+                    if (element != null) {
+                        this.accumulators[index].add(element);
+                    }
+                }
+            } else if (binding.primitive != null) {
+                this.bits[index] = binding.primitive.parse(source, start, end);
+                this.objects[index] = PRIMITIVE;
+            } else {
+                this.objects[index] = binding.converter.fromChars(source, start, end);
+            }
+        }
+
+        /**
+         * Converts the raw value in {@code source[start, end)} and puts it into the map of {@code binding} under
+         * {@code key}. The map is created with the first entry.
+         */
+        @SuppressWarnings("unchecked")
+        void put(final FieldBinding binding, final String key, final CharSequence source, final int start,
+                 final int end, final boolean shouldDecode, final StringBuilder buffer) {
+            final Object value;
+            if (shouldDecode && PercentCodec.needsDecoding(source, start, end)) {
+                buffer.setLength(0);
+                PercentCodec.decodeTo(source, start, end, buffer);
+                value = binding.converter.fromChars(buffer, 0, buffer.length());
+            } else {
+                value = binding.converter.fromChars(source, start, end);
+            }
+            if (value == null) {
+                return;
+            }
+            if (this.objects[binding.index] == ABSENT) {
+                this.objects[binding.index] = binding.mapFactory.newInstance();
+            }
+            ((Map<String, Object>) this.objects[binding.index]).put(key, value);
+        }
+
+        /**
+         * Returns the values of the nested {@code binding}, creating them on first use.
+         */
+        Values nested(final FieldBinding binding) {
+            if (this.nested == null) {
+                this.nested = new Values[this.objects.length];
+            }
+            if (this.nested[binding.index] == null) {
+                this.nested[binding.index] = binding.nested.newValues();
+            }
+            return this.nested[binding.index];
+        }
+
+        /**
+         * Turns the collected elements of multi-valued fields into their arrays or collections and creates the
+         * objects of nested fields. Fields without any element or nested value stay absent.
+         */
+        void complete() {
+            if (this.accumulators != null) {
+                for (int i = 0; i < this.accumulators.length; i++) {
+                    if (this.accumulators[i] != null && !this.accumulators[i].isEmpty()) {
+                        this.objects[i] = this.fields[i].multi.toValue(this.accumulators[i]);
+                    }
+                }
+                this.accumulators = null;
+            }
+            if (this.nested != null) {
+                for (int i = 0; i < this.nested.length; i++) {
+                    if (this.nested[i] != null) {
+                        this.nested[i].complete();
+                        this.objects[i] = this.fields[i].nested.instantiate(this.nested[i]);
+                    }
+                }
+                this.nested = null;
+            }
+        }
+
+        boolean isAbsent(final FieldBinding binding) {
+            return this.objects[binding.index] == ABSENT;
+        }
+
+        /**
+         * Returns the converted value, boxed for primitive fields.
+         */
+        Object get(final FieldBinding binding) {
+            final Object value = this.objects[binding.index];
+            return value == PRIMITIVE ? binding.primitive.box(this.bits[binding.index]) : value;
+        }
+
+    }
+
+    /**
+     * Where the value of a nested parameter name goes, see {@link #resolve}: a field, or an entry of a map field.
+     */
+    static final class Target {
+
+        private final Values values;
+        final FieldBinding binding;
+        private final String mapKey;
+
+        private Target(final Values values, final FieldBinding binding, final String mapKey) {
+            this.values = values;
+            this.binding = binding;
+            this.mapKey = mapKey;
+        }
+
+        void convert(final CharSequence source, final int start, final int end, final boolean shouldDecode,
+                     final StringBuilder buffer) {
+            if (this.mapKey == null) {
+                this.values.convert(this.binding, source, start, end, shouldDecode, buffer);
+            } else {
+                this.values.put(this.binding, this.mapKey, source, start, end, shouldDecode, buffer);
+            }
+        }
+
+    }
+
+    static final class FieldBinding {
+
+        final int index;
+        final String name;
+        final Field field;
+        final Accessor accessor;
+        /**
+         * Converts the field's value, single elements of multi-valued fields or the values of map fields. Nested
+         * fields have none.
+         */
+        final Converter converter;
+        final PrimitiveConverter primitive;
+        final MultiValued multi;
+        final Factory<Map<String, Object>> mapFactory;
+        final BindingPlan<?> nested;
+
+        FieldBinding(final int index, final String name, final Field field, final Accessor accessor,
+                     final Converter converter, final MultiValued multi,
+                     final Factory<Map<String, Object>> mapFactory, final BindingPlan<?> nested) {
+            this.index = index;
+            this.name = name;
+            this.field = field;
+            this.accessor = accessor;
+            this.converter = converter;
+            this.primitive = field.getType().isPrimitive() && converter instanceof PrimitiveConverter
+                    ? (PrimitiveConverter) converter
+                    : null;
+            this.multi = multi;
+            this.mapFactory = mapFactory;
+            this.nested = nested;
+        }
+
+        /**
+         * Returns whether a parameter value can be bound to this field as it is, which isn't the case for nested
+         * and map fields.
+         */
+        boolean isLeaf() {
+            return this.nested == null && this.mapFactory == null;
+        }
+
+        void set(final Object instance, final Object value) {
+            // Like Gson, primitives keep their default instead of failing on null
+            if (value == null && this.field.getType().isPrimitive()) {
+                return;
+            }
+            this.accessor.set(instance, value);
+        }
+
+        Object get(final Object instance) {
+            return this.accessor.get(instance);
+        }
+
+        /**
+         * Appends this field as parameter, preceded by {@code '&'} unless it is the {@code first} one. Below a
+         * {@code prefix}, the name is written as {@code prefix[name]}. Returns {@code false} without appending
+         * anything if the field is {@code null}.
+         */
+        boolean write(final Object instance, final StringBuilder out, final boolean shouldUseUrlEncoding,
+                      final boolean first, final String prefix) {
+            final String fullName = prefix == null ? this.name : prefix + '[' + this.name + ']';
+            if (this.multi != null) {
+                return this.multi.write(this.accessor.get(instance), fullName, out, shouldUseUrlEncoding, first);
+            }
+            if (this.nested != null) {
+                final Object value = this.accessor.get(instance);
+                return value != null && this.writeNested(value, out, shouldUseUrlEncoding, first, fullName);
+            }
+            if (this.mapFactory != null) {
+                return this.writeMap((Map<?, ?>) this.accessor.get(instance), out, shouldUseUrlEncoding, first,
+                        fullName);
+            }
+            if (this.primitive == null) {
+                final Object value = this.accessor.get(instance);
+                final String text = value == null ? null : this.converter.format(value);
+                if (text == null) {
+                    return false;
+                }
+                appendName(out, first, fullName);
+                if (!text.isEmpty()) {
+                    out.append('=');
+                    appendValue(out, text, shouldUseUrlEncoding);
+                }
+                return true;
+            }
+
+            appendName(out, first, fullName);
+            out.append('=');
+            this.primitive.append(this.accessor.getBits(instance), out, shouldUseUrlEncoding);
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean writeNested(final Object value, final StringBuilder out, final boolean shouldUseUrlEncoding,
+                                    final boolean first, final String fullName) {
+            return ((BindingPlan<Object>) this.nested).write(value, out, shouldUseUrlEncoding, first, fullName);
+        }
+
+        private boolean writeMap(final Map<?, ?> map, final StringBuilder out, final boolean shouldUseUrlEncoding,
+                                 final boolean first, final String fullName) {
+            if (map == null) {
+                return false;
+            }
+            boolean written = false;
+            for (final Entry<?, ?> entry : map.entrySet()) {
+                final String text = entry.getValue() == null ? null : this.converter.format(entry.getValue());
+                if (entry.getKey() == null || text == null || text.isEmpty()) {
+                    continue;
+                }
+                appendName(out, first && !written, fullName);
+                out.append('[');
+                appendValue(out, entry.getKey().toString(), shouldUseUrlEncoding);
+                out.append("]=");
+                appendValue(out, text, shouldUseUrlEncoding);
+                written = true;
+            }
+            return written;
+        }
+
+        private static void appendName(final StringBuilder out, final boolean first, final String name) {
+            if (!first) {
+                out.append('&');
+            }
+            out.append(name);
+        }
+
+        private static void appendValue(final StringBuilder out, final String text,
+                                        final boolean shouldUseUrlEncoding) {
+            if (shouldUseUrlEncoding) {
+                PercentCodec.encode(text, out);
+            } else {
+                out.append(text);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,147 @@
+package core;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Path;
+import javax.validation.ValidationException;
+import javax.validation.Validator;
+import javax.validation.metadata.ConstraintDescriptor;
+import java.util.Objects;
+
+/**
+ * Violation found by {@link ParameterChecks}, which is just the rejected value and the constraint it failed. Its
+ * message is only interpolated when it is asked for, by {@link Validator#validateValue(Class, String, Object)} for
+ * that single property, and cached per constraint if it doesn't depend on the value. So rejecting a request costs
+ * no message interpolation unless somebody reads the message.
+ * <p>
+ * Everything else is what the validator would report as well. The property path is the field name. The root and
+ * leaf bean are the checked object if the check ran on a bound object, and {@code null} like for
+ * {@code validateValue} if it ran on the converted parameter before an object was created.
+ */
+final class CheckedViolation<T> implements ConstraintViolation<T> {
+
+    private final Class<T> rootBeanClass;
+    private final T rootBean;
+    private final Validator validator;
+    private final String propertyName;
+    private final ParameterChecks.ConstraintCheck check;
+    private final Object invalidValue;
+    private volatile String message;
+
+    CheckedViolation(final Class<T> rootBeanClass, final T rootBean, final Validator validator,
+                     final String propertyName, final ParameterChecks.ConstraintCheck check,
+                     final Object invalidValue) {
+        this.rootBeanClass = rootBeanClass;
+        this.rootBean = rootBean;
+        this.validator = validator;
+        this.propertyName = propertyName;
+        this.check = check;
+        this.invalidValue = invalidValue;
+    }
+
+    @Override
+    public String getMessage() {
+        String message = this.message;
+        if (message == null) {
+            message = this.check.getCachedMessage();
+        }
+        if (message == null) {
+            message = this.interpolate();
+            this.check.cacheMessage(message);
+        }
+        this.message = message;
+        return message;
+    }
+
+    private String interpolate() {
+        for (final ConstraintViolation<T> violation
+                : this.validator.validateValue(this.rootBeanClass, this.propertyName, this.invalidValue)) {
+            if (violation.getConstraintDescriptor().getAnnotation().equals(this.check.descriptor.getAnnotation())) {
+                return violation.getMessage();
+            }
+        }
+        return this.check.descriptor.getMessageTemplate();
+    }
+
+    @Override
+    public String getMessageTemplate() {
+        return this.check.descriptor.getMessageTemplate();
+    }
+
+    @Override
+    public T getRootBean() {
+        return this.rootBean;
+    }
+
+    @Override
+    public Class<T> getRootBeanClass() {
+        return this.rootBeanClass;
+    }
+
+    @Override
+    public Object getLeafBean() {
+        return this.rootBean;
+    }
+
+    @Override
+    public Object[] getExecutableParameters() {
+        return null;
+    }
+
+    @Override
+    public Object getExecutableReturnValue() {
+        return null;
+    }
+
+    @Override
+    public Path getPropertyPath() {
+        return new PropertyPath(this.propertyName);
+    }
+
+    @Override
+    public Object getInvalidValue() {
+        return this.invalidValue;
+    }
+
+    @Override
+    public ConstraintDescriptor<?> getConstraintDescriptor() {
+        return this.check.descriptor;
+    }
+
+    @Override
+    public <U> U unwrap(final Class<U> type) {
+        if (type.isInstance(this)) {
+            return type.cast(this);
+        }
+        throw new ValidationException("Type " + type.getName() + " not supported for unwrapping.");
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CheckedViolation)) {
+            return false;
+        }
+        final CheckedViolation<?> other = (CheckedViolation<?>) obj;
+        return this.rootBeanClass == other.rootBeanClass
+                && this.rootBean == other.rootBean
+                && this.propertyName.equals(other.propertyName)
+                && this.check == other.check
+                && Objects.equals(this.invalidValue, other.invalidValue);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.rootBeanClass, this.propertyName, this.check, this.invalidValue);
+    }
+
+    @Override
+    public String toString() {
+        return "CheckedViolation{" +
+                "propertyName='" + this.propertyName + '\'' +
+                ", invalidValue='" + this.invalidValue + '\'' +
+                ", messageTemplate='" + this.getMessageTemplate() + '\'' +
+                '}';
+    }
+}
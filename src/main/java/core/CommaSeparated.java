@@ -0,0 +1,19 @@
+package core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Writes an array or collection field as one comma-separated parameter, e.g. {@code ids=1,2,3}, instead of one
+ * parameter per element, e.g. {@code ids=1&ids=2&ids=3}. Both styles are accepted when reading such a field.
+ * Commas inside of elements are percent-encoded, so this requires URL encoding to be enabled for elements which
+ * may contain commas.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface CommaSeparated {
+}
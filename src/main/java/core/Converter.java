@@ -0,0 +1,25 @@
+package core;
+
+/**
+ * Turns a non-null parameter value into a field's type and back, see {@link Converters#forField}.
+ */
+interface Converter {
+
+    /**
+     * May return {@code null}, e.g. for unknown enum constants.
+     */
+    Object fromString(String value);
+
+    /**
+     * Like {@link #fromString(String)} for the decoded value in {@code source[start, end)}. Converters which don't
+     * need a {@code String} override this to parse the characters in place.
+     */
+    default Object fromChars(final CharSequence source, final int start, final int end) {
+        return this.fromString(source.subSequence(start, end).toString());
+    }
+
+    default String format(final Object value) {
+        return value.toString();
+    }
+
+}
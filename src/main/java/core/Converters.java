@@ -0,0 +1,530 @@
+package core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link Converter}s of a {@link BindingPlan}. Results and exceptions are the same as from Gson's adapters
+ * reading a {@code JsonPrimitive} string, numbers, booleans, characters and enums are just parsed straight from the
+ * characters. Anything unusual, like non-ASCII digits or too many of them, is handed to the JDK's parsers.
+ */
+final class Converters {
+
+    private static final double[] POWERS_OF_TEN = new double[23];
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private Converters() {
+    }
+
+    static Converter forField(final Field field, final Gson gson) {
+        return forType(field.getType(), field.getGenericType(), gson);
+    }
+
+    /**
+     * Returns the converter for values of {@code type}. Types without a built-in converter, including enums with a
+     * {@code @JsonAdapter}, use Gson's adapter for {@code genericType}.
+     */
+    static Converter forType(final Class<?> type, final Type genericType, final Gson gson) {
+        if (type == String.class) {
+            return new Converter() {
+                @Override
+                public Object fromString(final String value) {
+                    return value;
+                }
+            };
+        }
+        if (type == Integer.class || type == int.class) {
+            return INT;
+        }
+        if (type == Long.class || type == long.class) {
+            return LONG;
+        }
+        if (type == Short.class || type == short.class) {
+            return SHORT;
+        }
+        if (type == Byte.class || type == byte.class) {
+            return BYTE;
+        }
+        if (type == Float.class || type == float.class) {
+            return FLOAT;
+        }
+        if (type == Double.class || type == double.class) {
+            return DOUBLE;
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return BOOLEAN;
+        }
+        if (type == Character.class || type == char.class) {
+            return CHAR;
+        }
+        if (type == BigDecimal.class) {
+            return Converters::parseBigDecimal;
+        }
+        if (type == BigInteger.class) {
+            return Converters::parseBigInteger;
+        }
+        if (type.isEnum() && !type.isAnnotationPresent(JsonAdapter.class)) {
+            return enumConverter(type);
+        }
+        return adapterConverter(gson.getAdapter(TypeToken.get(genericType)));
+    }
+
+    /**
+     * Returns the converter for a field annotated with {@code annotation}, which uses the annotated adapter like
+     * Gson's reflective adapter does. Returns {@code null} if that adapter isn't a {@link TypeAdapter} or a
+     * {@link TypeAdapterFactory} creating one for {@code genericType}, or can't be instantiated.
+     */
+    static Converter forJsonAdapter(final JsonAdapter annotation, final Type genericType, final Gson gson) {
+        final Object instance;
+        try {
+            final Constructor<?> constructor = annotation.value().getDeclaredConstructor();
+            constructor.setAccessible(true);
+            instance = constructor.newInstance();
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+
+        TypeAdapter<?> adapter = null;
+        if (instance instanceof TypeAdapter) {
+            adapter = (TypeAdapter<?>) instance;
+        } else if (instance instanceof TypeAdapterFactory) {
+            adapter = ((TypeAdapterFactory) instance).create(gson, TypeToken.get(genericType));
+        }
+        if (adapter == null) {
+            return null;
+        }
+        return adapterConverter(annotation.nullSafe() ? adapter.nullSafe() : adapter);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Converter adapterConverter(final TypeAdapter<?> typeAdapter) {
+        final TypeAdapter<Object> adapter = (TypeAdapter<Object>) typeAdapter;
+        return new Converter() {
+            @Override
+            public Object fromString(final String value) {
+                return adapter.fromJsonTree(new JsonPrimitive(value));
+            }
+
+            @Override
+            public String format(final Object value) {
+                final JsonElement element = adapter.toJsonTree(value);
+                if (element.isJsonNull()) {
+                    return null;
+                }
+                if (!element.isJsonPrimitive()) {
+                    throw new JsonSyntaxException("Expected a string but was " + element);
+                }
+                return element.getAsString();
+            }
+        };
+    }
+
+    /**
+     * Returns whether values of {@code type} have a built-in converter, which means they can also be elements of a
+     * multi-valued parameter.
+     */
+    static boolean isBuiltIn(final Class<?> type) {
+        return type.isPrimitive() && type != void.class
+                || type == String.class
+                || type == Integer.class || type == Long.class || type == Short.class || type == Byte.class
+                || type == Float.class || type == Double.class || type == Boolean.class || type == Character.class
+                || type == BigDecimal.class || type == BigInteger.class
+                || type.isEnum() && !type.isAnnotationPresent(JsonAdapter.class);
+    }
+
+    private static final PrimitiveConverter INT = new PrimitiveConverter() {
+        @Override
+        long parse(final CharSequence source, final int start, final int end) {
+            return parseInt(source, start, end);
+        }
+
+        @Override
+        Object box(final long bits) {
+            return (int) bits;
+        }
+
+        @Override
+        void append(final long bits, final StringBuilder out, final boolean shouldUseUrlEncoding) {
+            out.append((int) bits);
+        }
+    };
+
+    private static final PrimitiveConverter LONG = new PrimitiveConverter() {
+        @Override
+        long parse(final CharSequence source, final int start, final int end) {
+            return parseLong(source, start, end);
+        }
+
+        @Override
+        Object box(final long bits) {
+            return bits;
+        }
+
+        @Override
+        void append(final long bits, final StringBuilder out, final boolean shouldUseUrlEncoding) {
+            out.append(bits);
+        }
+    };
+
+    private static final PrimitiveConverter SHORT = new PrimitiveConverter() {
+        @Override
+        long parse(final CharSequence source, final int start, final int end) {
+            return (short) parseInt(source, start, end);
+        }
+
+        @Override
+        Object box(final long bits) {
+            return (short) bits;
+        }
+
+        @Override
+        void append(final long bits, final StringBuilder out, final boolean shouldUseUrlEncoding) {
+            out.append((short) bits);
+        }
+    };
+
+    private static final PrimitiveConverter BYTE = new PrimitiveConverter() {
+        @Override
+        long parse(final CharSequence source, final int start, final int end) {
+            return (byte) parseInt(source, start, end);
+        }
+
+        @Override
+        Object box(final long bits) {
+            return (byte) bits;
+        }
+
+        @Override
+        void append(final long bits, final StringBuilder out, final boolean shouldUseUrlEncoding) {
+            out.append((byte) bits);
+        }
+    };
+
+    // Gson doesn't wrap NumberFormatExceptions of floating point numbers, neither do we
+    private static final PrimitiveConverter FLOAT = new PrimitiveConverter() {
+        @Override
+        long parse(final CharSequence source, final int start, final int end) {
+            return Float.floatToRawIntBits((float) parseDouble(source, start, end));
+        }
+
+        @Override
+        Object box(final long bits) {
+            return Float.intBitsToFloat((int) bits);
+        }
+
+        @Override
+        void append(final long bits, final StringBuilder out, final boolean shouldUseUrlEncoding) {
+            out.append(checkValidFloatingPoint(Float.intBitsToFloat((int) bits)));
+        }
+
+        @Override
+        public String format(final Object value) {
+            return Float.toString(checkValidFloatingPoint((Float) value));
+        }
+    };
+
+    private static final PrimitiveConverter DOUBLE = new PrimitiveConverter() {
+        @Override
+        long parse(final CharSequence source, final int start, final int end) {
+            return Double.doubleToRawLongBits(parseDouble(source, start, end));
+        }
+
+        @Override
+        Object box(final long bits) {
+            return Double.longBitsToDouble(bits);
+        }
+
+        @Override
+        void append(final long bits, final StringBuilder out, final boolean shouldUseUrlEncoding) {
+            out.append(checkValidFloatingPoint(Double.longBitsToDouble(bits)));
+        }
+
+        @Override
+        public String format(final Object value) {
+            return Double.toString(checkValidFloatingPoint((Double) value));
+        }
+    };
+
+    private static final PrimitiveConverter BOOLEAN = new PrimitiveConverter() {
+        @Override
+        long parse(final CharSequence source, final int start, final int end) {
+            return parseBoolean(source, start, end) ? 1 : 0;
+        }
+
+        @Override
+        Object box(final long bits) {
+            return bits != 0;
+        }
+
+        @Override
+        void append(final long bits, final StringBuilder out, final boolean shouldUseUrlEncoding) {
+            out.append(bits != 0);
+        }
+    };
+
+    private static final PrimitiveConverter CHAR = new PrimitiveConverter() {
+        @Override
+        long parse(final CharSequence source, final int start, final int end) {
+            return parseChar(source, start, end);
+        }
+
+        @Override
+        Object box(final long bits) {
+            return (char) bits;
+        }
+
+        @Override
+        void append(final long bits, final StringBuilder out, final boolean shouldUseUrlEncoding) {
+            appendChar((char) bits, out, shouldUseUrlEncoding);
+        }
+    };
+
+    /**
+     * {@link Boolean#parseBoolean(String)} without creating a {@code String}.
+     */
+    static boolean parseBoolean(final CharSequence source, final int start, final int end) {
+        // No other character's case folds to one of "true"
+        return end - start == 4
+                && (source.charAt(start) | 0x20) == 't'
+                && (source.charAt(start + 1) | 0x20) == 'r'
+                && (source.charAt(start + 2) | 0x20) == 'u'
+                && (source.charAt(start + 3) | 0x20) == 'e';
+    }
+
+    static char parseChar(final CharSequence source, final int start, final int end) {
+        if (end - start != 1) {
+            throw new JsonSyntaxException("Expecting character, got: " + source.subSequence(start, end));
+        }
+        return source.charAt(start);
+    }
+
+    static BigDecimal parseBigDecimal(final String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (final NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    static BigInteger parseBigInteger(final String value) {
+        try {
+            return new BigInteger(value);
+        } catch (final NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    static void appendChar(final char value, final StringBuilder out, final boolean shouldUseUrlEncoding) {
+        if (shouldUseUrlEncoding) {
+            PercentCodec.encode(String.valueOf(value), out);
+        } else {
+            out.append(value);
+        }
+    }
+
+    /**
+     * {@link Integer#parseInt(String)} for up to 9 ASCII digits, which can't overflow.
+     */
+    static int parseInt(final CharSequence source, final int start, final int end) {
+        int position = start;
+        final boolean negative = position < end && source.charAt(position) == '-';
+        if (position < end && (negative || source.charAt(position) == '+')) {
+            position++;
+        }
+        if (position == end || end - position > 9) {
+            return parseIntSlowly(source, start, end);
+        }
+        int value = 0;
+        for (; position < end; position++) {
+            final int digit = source.charAt(position) - '0';
+            if (digit < 0 || digit > 9) {
+                return parseIntSlowly(source, start, end);
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * {@link Long#parseLong(String)} for up to 18 ASCII digits, which can't overflow.
+     */
+    static long parseLong(final CharSequence source, final int start, final int end) {
+        int position = start;
+        final boolean negative = position < end && source.charAt(position) == '-';
+        if (position < end && (negative || source.charAt(position) == '+')) {
+            position++;
+        }
+        if (position == end || end - position > 18) {
+            return parseLongSlowly(source, start, end);
+        }
+        long value = 0;
+        for (; position < end; position++) {
+            final int digit = source.charAt(position) - '0';
+            if (digit < 0 || digit > 9) {
+                return parseLongSlowly(source, start, end);
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * {@link Double#parseDouble(String)} for plain decimals like {@code -12.75}. If the digits form an integer
+     * below 2^53 with at most 22 fraction digits, both it and the power of ten are exact doubles and a single
+     * (correctly rounded) division gives the correctly rounded result.
+     */
+    static double parseDouble(final CharSequence source, final int start, final int end) {
+        int position = start;
+        final boolean negative = position < end && source.charAt(position) == '-';
+        if (position < end && (negative || source.charAt(position) == '+')) {
+            position++;
+        }
+        long digits = 0;
+        int digitCount = 0;
+        int scale = 0;
+        boolean seenPoint = false;
+        for (; position < end; position++) {
+            final char c = source.charAt(position);
+            if (c >= '0' && c <= '9') {
+                digits = digits * 10 + (c - '0');
+                if (digits >= MAX_EXACT_DOUBLE) {
+                    return parseDoubleSlowly(source, start, end);
+                }
+                digitCount++;
+                if (seenPoint) {
+                    scale++;
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                return parseDoubleSlowly(source, start, end);
+            }
+        }
+        if (digitCount == 0 || scale >= POWERS_OF_TEN.length) {
+            return parseDoubleSlowly(source, start, end);
+        }
+        final double value = scale == 0 ? (double) digits : digits / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private static int parseIntSlowly(final CharSequence source, final int start, final int end) {
+        try {
+            return Integer.parseInt(source.subSequence(start, end).toString());
+        } catch (final NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static long parseLongSlowly(final CharSequence source, final int start, final int end) {
+        try {
+            return Long.parseLong(source.subSequence(start, end).toString());
+        } catch (final NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * Returns {@code value} if it is finite, otherwise throws the exception Gson throws when serializing it.
+     */
+    static float checkValidFloatingPoint(final float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            throw invalidFloatingPoint(value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns {@code value} if it is finite, otherwise throws the exception Gson throws when serializing it.
+     */
+    static double checkValidFloatingPoint(final double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw invalidFloatingPoint(value);
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException invalidFloatingPoint(final double value) {
+        return new IllegalArgumentException(value + " is not a valid double value as per JSON specification. To"
+                + " override this behavior, use GsonBuilder.serializeSpecialFloatingPointValues() method.");
+    }
+
+    private static double parseDoubleSlowly(final CharSequence source, final int start, final int end) {
+        return Double.parseDouble(source.subSequence(start, end).toString());
+    }
+
+    private static Converter enumConverter(final Class<?> type) {
+        final Map<String, Object> constantsByName = new HashMap<>();
+        final Map<Object, String> namesByConstant = new HashMap<>();
+        for (final Object constant : type.getEnumConstants()) {
+            final String name = ((Enum<?>) constant).name();
+            final SerializedName annotation;
+            try {
+                annotation = type.getField(name).getAnnotation(SerializedName.class);
+            } catch (final NoSuchFieldException e) {
+                throw new AssertionError(e);
+            }
+            if (annotation == null) {
+                constantsByName.put(name, constant);
+                namesByConstant.put(constant, name);
+            } else {
+                constantsByName.put(annotation.value(), constant);
+                namesByConstant.put(constant, annotation.value());
+                for (final String alternate : annotation.alternate()) {
+                    constantsByName.put(alternate, constant);
+                }
+            }
+        }
+        final NameIndex<Object> constantsByChars = NameIndex.of(constantsByName);
+        return new Converter() {
+            @Override
+            public Object fromString(final String value) {
+                return constantsByName.get(value);
+            }
+
+            @Override
+            public Object fromChars(final CharSequence source, final int start, final int end) {
+                return constantsByChars.get(source, start, end);
+            }
+
+            @Override
+            public String format(final Object value) {
+                return namesByConstant.get(value);
+            }
+        };
+    }
+
+    static boolean regionMatches(final String name, final CharSequence source, final int start, final int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != source.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,87 @@
+package core;
+
+/**
+ * Cursor over the segments of a nested parameter name in dot or bracket notation, e.g. {@code filter.price.min}
+ * or {@code filter[price][min]}, without creating substrings. A trailing {@code []}, like in {@code ids[]}, is
+ * reported as an empty last segment.
+ */
+final class KeyPath {
+
+    private final CharSequence source;
+    private final int end;
+    private int segmentStart;
+    private int segmentEnd;
+    private int next;
+
+    KeyPath(final CharSequence source, final int start, final int end) {
+        this.source = source;
+        this.end = end;
+        this.next = start;
+        this.segmentEnd = -1;
+    }
+
+    /**
+     * Returns whether a parameter name might be nested, which is the case if it contains {@code '.'},
+     * {@code '['} or an escape (of a bracket, possibly).
+     */
+    static boolean isNestedCandidate(final CharSequence source, final int start, final int end) {
+        for (int position = start; position < end; position++) {
+            final char c = source.charAt(position);
+            if (c == '.' || c == '[' || c == '%') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves to the next segment. Returns {@code false} at the end and if the name is malformed, e.g. has an
+     * unclosed bracket or characters after a closing bracket.
+     */
+    boolean next() {
+        if (this.next > this.end) {
+            return false;
+        }
+        final boolean bracketed = this.segmentEnd >= 0 && this.source.charAt(this.next - 1) == '[';
+        this.segmentStart = this.next;
+        int position = this.next;
+        if (bracketed) {
+            while (position < this.end && this.source.charAt(position) != ']') {
+                position++;
+            }
+            if (position == this.end) {
+                this.next = this.end + 1;
+                return false;
+            }
+            this.segmentEnd = position;
+            position++;
+            if (position < this.end && this.source.charAt(position) != '.' && this.source.charAt(position) != '[') {
+                this.next = this.end + 1;
+                return false;
+            }
+        } else {
+            while (position < this.end && this.source.charAt(position) != '.' && this.source.charAt(position) != '[') {
+                position++;
+            }
+            this.segmentEnd = position;
+        }
+        this.next = position + 1;
+        return true;
+    }
+
+    /**
+     * Returns whether the current segment is the last one.
+     */
+    boolean isLast() {
+        return this.next > this.end;
+    }
+
+    int segmentStart() {
+        return this.segmentStart;
+    }
+
+    int segmentEnd() {
+        return this.segmentEnd;
+    }
+
+}
@@ -0,0 +1,185 @@
+package core;
+
+import com.google.gson.JsonParseException;
+
+import javax.validation.ConstraintViolation;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Reads a file of newline-separated URLs or query strings front to back through a memory-mapped window, and binds
+ * and validates the query string of each line in place, see {@link QueryLines#queryStart} for how it is found. Only
+ * the window is mapped at a time and nothing but the bound objects and invalid lines is kept, so files can be
+ * much larger than the heap.
+ * <p>
+ * Valid objects go to one consumer and invalid lines, with their offset in the file, to another one. A reader
+ * holds no state of its own and can read several files at once.
+ */
+public final class MappedQueryReader<T> {
+
+    private static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+    private final Vurlp<T> vurlp;
+    private final Charset charset;
+    private final int windowSize;
+
+    public MappedQueryReader(final Vurlp<T> vurlp) {
+        this(vurlp, StandardCharsets.UTF_8, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param charset    of the file, which must encode ASCII as single bytes, as UTF-8 and ISO-8859-1 do, since
+     *                   lines and parameters are split on ASCII bytes
+     * @param windowSize the number of bytes mapped at a time, which is doubled for lines which don't fit
+     */
+    public MappedQueryReader(final Vurlp<T> vurlp, final Charset charset, final int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("windowSize must be positive: " + windowSize);
+        }
+        if (!AsciiByteSequence.isAsciiCompatible(charset)) {
+            throw new IllegalArgumentException("charset must encode ASCII as single bytes: " + charset);
+        }
+        this.vurlp = Objects.requireNonNull(vurlp);
+        this.charset = Objects.requireNonNull(charset);
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Reads {@code file} and hands each valid object to {@code valid} and each invalid line to {@code invalid}, in
+     * the order of the file. Empty lines are skipped. Returns the number of valid lines.
+     */
+    public long read(final Path file, final Consumer<? super T> valid, final Consumer<? super InvalidLine> invalid)
+            throws IOException {
+        long validLines = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Vurlp<T>.BatchParser parser = this.vurlp.batchParser()) {
+            final long size = channel.size();
+            long position = 0;
+            int window = this.windowSize;
+            while (position < size) {
+                final int length = (int) Math.min(window, size - position);
+                final MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                final boolean last = position + length == size;
+                int lineStart = 0;
+                while (lineStart < length) {
+                    final int lineEnd = QueryLines.endOfLine(bytes, lineStart, length);
+                    if (lineEnd == length && !last) {
+                        break;
+                    }
+                    final int contentEnd = QueryLines.trimEnd(bytes, lineStart, lineEnd);
+                    if (contentEnd > lineStart
+                            && this.readLine(bytes, lineStart, contentEnd, position, parser, valid, invalid)) {
+                        validLines++;
+                    }
+                    lineStart = lineEnd + 1;
+                }
+                if (lineStart == 0 && !last) {
+                    if (window == Integer.MAX_VALUE) {
+                        throw new IOException("Line at " + position + " is too long to be mapped");
+                    }
+                    window = (int) Math.min(Integer.MAX_VALUE, window * 2L);
+                } else {
+                    position += lineStart;
+                    window = this.windowSize;
+                }
+            }
+        }
+        return validLines;
+    }
+
+    private boolean readLine(final MappedByteBuffer bytes, final int lineStart, final int lineEnd,
+                             final long windowPosition, final Vurlp<T>.BatchParser parser,
+                             final Consumer<? super T> valid, final Consumer<? super InvalidLine> invalid) {
+        final int queryStart = QueryLines.queryStart(bytes, lineStart, lineEnd);
+        final int queryEnd = QueryLines.queryEnd(bytes, queryStart, lineEnd);
+        final Object result;
+        try {
+            result = parser.parse(AsciiByteSequence.ofAsciiCompatible(bytes, queryStart, queryEnd, this.charset));
+        } catch (final JsonParseException | NumberFormatException e) {
+            invalid.accept(new InvalidLine(windowPosition + lineStart,
+                    AsciiByteSequence.ofAsciiCompatible(bytes, lineStart, lineEnd, this.charset).toString(),
+                    Collections.emptySet(), e));
+            return false;
+        }
+        if (parser.isValid(result)) {
+            @SuppressWarnings("unchecked") final T object = (T) result;
+            valid.accept(object);
+            return true;
+        }
+        @SuppressWarnings("unchecked") final Set<ConstraintViolation<?>> violations =
+                (Set<ConstraintViolation<?>>) result;
+        invalid.accept(new InvalidLine(windowPosition + lineStart,
+                AsciiByteSequence.ofAsciiCompatible(bytes, lineStart, lineEnd, this.charset).toString(),
+                Collections.unmodifiableSet(violations), null));
+        return false;
+    }
+
+    /**
+     * A line which didn't produce a valid object, either because of violations or because a value couldn't be
+     * converted to its field's type, which {@code fromParams} would have thrown for.
+     */
+    public static final class InvalidLine {
+
+        private final long offset;
+        private final String line;
+        private final Set<ConstraintViolation<?>> violations;
+        private final RuntimeException conversionError;
+
+        private InvalidLine(final long offset, final String line, final Set<ConstraintViolation<?>> violations,
+                            final RuntimeException conversionError) {
+            this.offset = offset;
+            this.line = line;
+            this.violations = violations;
+            this.conversionError = conversionError;
+        }
+
+        /**
+         * Returns the offset of the line's first byte in the file.
+         */
+        public long getOffset() {
+            return this.offset;
+        }
+
+        /**
+         * Returns the whole line, without line break.
+         */
+        public String getLine() {
+            return this.line;
+        }
+
+        /**
+         * Returns the violations of the line, which are empty if it has a conversion error.
+         */
+        public Set<ConstraintViolation<?>> getViolations() {
+            return this.violations;
+        }
+
+        /**
+         * Returns the exception for a value which couldn't be converted, or {@code null}.
+         */
+        public RuntimeException getConversionError() {
+            return this.conversionError;
+        }
+
+        @Override
+        public String toString() {
+            return "InvalidLine{" +
+                    "offset=" + this.offset +
+                    ", line='" + this.line + '\'' +
+                    ", violations=" + this.violations +
+                    ", conversionError=" + this.conversionError +
+                    '}';
+        }
+
+    }
+
+}
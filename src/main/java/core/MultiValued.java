@@ -0,0 +1,311 @@
+package core;
+
+import com.google.gson.Gson;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Binding of an array or collection field to a parameter with several values, e.g. {@code int[] ids} to
+ * {@code ids=1&ids=2} or, with {@link CommaSeparated}, to {@code ids=1,2}. Elements can be of any type with a
+ * built-in {@link Converter}. While reading, elements of primitive arrays are collected as raw bits in a growable
+ * {@code long[]}, so they are never boxed.
+ * <p>
+ * Empty elements are skipped, just like empty single values are treated as absent. So are unknown enum constants,
+ * which Gson would turn into {@code null}.
+ */
+final class MultiValued {
+
+    private final Class<?> elementType;
+    private final BindingPlan.Factory<? extends Collection<Object>> collectionFactory;
+    final Converter elementConverter;
+    final PrimitiveConverter primitive;
+    final boolean commaSeparated;
+
+    private MultiValued(final Class<?> elementType,
+                        final BindingPlan.Factory<? extends Collection<Object>> collectionFactory,
+                        final Converter elementConverter, final boolean commaSeparated) {
+        this.elementType = elementType;
+        this.collectionFactory = collectionFactory;
+        this.elementConverter = elementConverter;
+        this.primitive = elementType.isPrimitive() ? (PrimitiveConverter) elementConverter : null;
+        this.commaSeparated = commaSeparated;
+    }
+
+    /**
+     * Returns the binding for {@code field}, or {@code null} if it isn't an array or collection of a supported
+     * element type.
+     */
+    static MultiValued of(final Field field, final Gson gson) {
+        final Class<?> type = field.getType();
+        final boolean commaSeparated = field.isAnnotationPresent(CommaSeparated.class);
+
+        if (type.isArray()) {
+            final Class<?> elementType = type.getComponentType();
+            if (!Converters.isBuiltIn(elementType)) {
+                return null;
+            }
+            return new MultiValued(elementType, null, Converters.forType(elementType, elementType, gson),
+                    commaSeparated);
+        }
+
+        if (!Collection.class.isAssignableFrom(type) || !(field.getGenericType() instanceof ParameterizedType)) {
+            return null;
+        }
+        Type elementGenericType = ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
+        if (elementGenericType instanceof WildcardType) {
+            elementGenericType = ((WildcardType) elementGenericType).getUpperBounds()[0];
+        }
+        if (!(elementGenericType instanceof Class) || !Converters.isBuiltIn((Class<?>) elementGenericType)) {
+            return null;
+        }
+        final Class<?> elementType = (Class<?>) elementGenericType;
+        final BindingPlan.Factory<? extends Collection<Object>> collectionFactory =
+                collectionFactoryFor(type, elementType);
+        if (collectionFactory == null) {
+            return null;
+        }
+        return new MultiValued(elementType, collectionFactory, Converters.forType(elementType, elementType, gson),
+                commaSeparated);
+    }
+
+    /**
+     * Returns this binding with elements converted by {@code elementConverter}, which must be a
+     * {@link PrimitiveConverter} for primitive arrays.
+     */
+    MultiValued withElementConverter(final Converter elementConverter) {
+        return new MultiValued(this.elementType, this.collectionFactory, elementConverter, this.commaSeparated);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static BindingPlan.Factory<? extends Collection<Object>> collectionFactoryFor(final Class<?> type,
+                                                                                        final Class<?> elementType) {
+        if (elementType.isEnum() && (type == Set.class || type == EnumSet.class)) {
+            return () -> (Collection<Object>) (Collection) EnumSet.noneOf((Class<Enum>) elementType);
+        }
+        if (type.isAssignableFrom(ArrayList.class)) {
+            return ArrayList::new;
+        }
+        if (type.isAssignableFrom(LinkedHashSet.class)) {
+            return LinkedHashSet::new;
+        }
+        if (type == SortedSet.class || type == NavigableSet.class) {
+            return TreeSet::new;
+        }
+        if (type == Queue.class || type == Deque.class) {
+            return ArrayDeque::new;
+        }
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        try {
+            return RuntimeAccessors.factoryFor((Constructor<Collection<Object>>)
+                    type.getDeclaredConstructor());
+        } catch (final NoSuchMethodException | SecurityException e) {
+            return null;
+        }
+    }
+
+    Accumulator newAccumulator() {
+        return new Accumulator(this.primitive != null);
+    }
+
+    /**
+     * Creates the field's value from the collected elements.
+     */
+    Object toValue(final Accumulator accumulator) {
+        if (this.collectionFactory != null) {
+            final Collection<Object> collection = this.collectionFactory.newInstance();
+            collection.addAll(Arrays.asList(accumulator.objects).subList(0, accumulator.size));
+            return collection;
+        }
+        if (this.primitive == null) {
+            final Object[] array = (Object[]) Array.newInstance(this.elementType, accumulator.size);
+            System.arraycopy(accumulator.objects, 0, array, 0, accumulator.size);
+            return array;
+        }
+
+        final long[] bits = accumulator.bits;
+        final int size = accumulator.size;
+        if (this.elementType == int.class) {
+            final int[] array = new int[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = (int) bits[i];
+            }
+            return array;
+        }
+        if (this.elementType == long.class) {
+            return Arrays.copyOf(bits, size);
+        }
+        if (this.elementType == double.class) {
+            final double[] array = new double[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = Double.longBitsToDouble(bits[i]);
+            }
+            return array;
+        }
+        if (this.elementType == float.class) {
+            final float[] array = new float[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = Float.intBitsToFloat((int) bits[i]);
+            }
+            return array;
+        }
+        if (this.elementType == boolean.class) {
+            final boolean[] array = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = bits[i] != 0;
+            }
+            return array;
+        }
+        if (this.elementType == short.class) {
+            final short[] array = new short[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = (short) bits[i];
+            }
+            return array;
+        }
+        if (this.elementType == byte.class) {
+            final byte[] array = new byte[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = (byte) bits[i];
+            }
+            return array;
+        }
+        final char[] array = new char[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = (char) bits[i];
+        }
+        return array;
+    }
+
+    /**
+     * Appends all non-null, non-empty elements of {@code value} under {@code name}, preceded by {@code '&'}
+     * unless it is the {@code first} parameter. Returns {@code false} without appending anything if there are no
+     * such elements.
+     */
+    boolean write(final Object value, final String name, final StringBuilder out, final boolean shouldUseUrlEncoding,
+                  final boolean first) {
+        if (value == null) {
+            return false;
+        }
+        boolean written = false;
+        if (this.primitive != null) {
+            final int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                this.appendSeparator(out, name, first, written);
+                this.primitive.append(bitsAt(value, i), out, shouldUseUrlEncoding);
+                written = true;
+            }
+            return written;
+        }
+
+        final Iterable<?> elements = value instanceof Object[] ? Arrays.asList((Object[]) value) : (Iterable<?>) value;
+        for (final Object element : elements) {
+            final String text = element == null ? null : this.elementConverter.format(element);
+            if (text == null || text.isEmpty()) {
+                continue;
+            }
+            this.appendSeparator(out, name, first, written);
+            if (shouldUseUrlEncoding) {
+                PercentCodec.encode(text, out);
+            } else {
+                out.append(text);
+            }
+            written = true;
+        }
+        return written;
+    }
+
+    private void appendSeparator(final StringBuilder out, final String name, final boolean first,
+                                 final boolean written) {
+        if (written && this.commaSeparated) {
+            out.append(',');
+            return;
+        }
+        if (written || !first) {
+            out.append('&');
+        }
+        out.append(name).append('=');
+    }
+
+    private long bitsAt(final Object array, final int index) {
+        if (this.elementType == int.class) {
+            return ((int[]) array)[index];
+        }
+        if (this.elementType == long.class) {
+            return ((long[]) array)[index];
+        }
+        if (this.elementType == double.class) {
+            return Double.doubleToRawLongBits(((double[]) array)[index]);
+        }
+        if (this.elementType == float.class) {
+            return Float.floatToRawIntBits(((float[]) array)[index]);
+        }
+        if (this.elementType == boolean.class) {
+            return ((boolean[]) array)[index] ? 1 : 0;
+        }
+        if (this.elementType == short.class) {
+            return ((short[]) array)[index];
+        }
+        if (this.elementType == byte.class) {
+            return ((byte[]) array)[index];
+        }
+        return ((char[]) array)[index];
+    }
+
+    /**
+     * The elements read so far for one field, either as raw bits or as objects.
+     */
+    static final class Accumulator {
+
+        private long[] bits;
+        private Object[] objects;
+        private int size;
+
+        private Accumulator(final boolean primitive) {
+            if (primitive) {
+                this.bits = new long[8];
+            } else {
+                this.objects = new Object[8];
+            }
+        }
+
+        boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        void addBits(final long value) {
+            if (this.size == this.bits.length) {
+                this.bits = Arrays.copyOf(this.bits, this.size * 2);
+            }
+            this.bits[this.size++] = value;
+        }
+
+        void add(final Object value) {
+            if (this.size == this.objects.length) {
+                this.objects = Arrays.copyOf(this.objects, this.size * 2);
+            }
+            this.objects[this.size++] = value;
+        }
+
+    }
+
+}
@@ -0,0 +1,69 @@
+package core;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Read-only lookup from names to values that is queried with a range of characters, so parameter names never have
+ * to become a {@code String}. Names live in an open-addressed table with their full hash codes, which are the same
+ * as {@link String#hashCode()}. A lookup hashes the range once and only compares characters if a slot has the same
+ * hash code, so names that aren't in the table, e.g. {@code utm_source}, usually cost no comparison at all.
+ */
+final class NameIndex<V> {
+
+    private final String[] names;
+    private final int[] hashes;
+    private final Object[] values;
+    private final int mask;
+
+    private NameIndex(final int capacity) {
+        this.names = new String[capacity];
+        this.hashes = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Creates the index of all {@code entries}. The table is kept at most half full.
+     */
+    static <V> NameIndex<V> of(final Map<String, ? extends V> entries) {
+        int capacity = 2;
+        while (capacity < entries.size() * 2) {
+            capacity <<= 1;
+        }
+        final NameIndex<V> index = new NameIndex<>(capacity);
+        for (final Entry<String, ? extends V> entry : entries.entrySet()) {
+            final int hash = entry.getKey().hashCode();
+            int slot = spread(hash) & index.mask;
+            while (index.names[slot] != null) {
+                slot = (slot + 1) & index.mask;
+            }
+            index.names[slot] = entry.getKey();
+            index.hashes[slot] = hash;
+            index.values[slot] = entry.getValue();
+        }
+        return index;
+    }
+
+    /**
+     * Returns the value for the name in {@code source[start, end)}, or {@code null} if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    V get(final CharSequence source, final int start, final int end) {
+        int hash = 0;
+        for (int position = start; position < end; position++) {
+            hash = 31 * hash + source.charAt(position);
+        }
+        for (int slot = spread(hash) & this.mask; this.names[slot] != null; slot = (slot + 1) & this.mask) {
+            if (this.hashes[slot] == hash && Converters.regionMatches(this.names[slot], source, start, end)) {
+                return (V) this.values[slot];
+            }
+        }
+        return null;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+}
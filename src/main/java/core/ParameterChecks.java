@@ -0,0 +1,399 @@
+package core;
+
+import org.hibernate.validator.group.GroupSequenceProvider;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.GroupSequence;
+import javax.validation.Validator;
+import javax.validation.groups.Default;
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.ConstraintDescriptor;
+import javax.validation.metadata.ElementDescriptor.ConstraintFinder;
+import javax.validation.metadata.PropertyDescriptor;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cheap checks of {@code @NotNull}, {@code @Min}, {@code @Max}, {@code @Size} and {@code @Pattern} on the converted
+ * parameter values, before a {@code T} is created. Absent parameters are checked with the value the constructor
+ * assigns. Fields which may be assigned through a setter are the exception: the setter can change the value, so
+ * their checks are deferred until the object exists and read the field itself, where Bean Validation reads field
+ * constraints from.
+ * <p>
+ * The checks only ever reject: a failed check yields the same violation Bean Validation would report, as
+ * {@link CheckedViolation}. Only NaN, where bounds aren't worth reproducing, is confirmed by
+ * {@link Validator#validateValue(Class, String, Object)} for that single property. Passing all checks proves
+ * nothing, the bound object still goes through the full validator.
+ * <p>
+ * Without fail-fast mode the violations must be the same as from the full validator, so the checks are only used if
+ * they cover every constraint of the class. With fail-fast mode any subset will do.
+ */
+final class ParameterChecks<T> {
+
+    private static final MethodType READER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final Class<T> clazz;
+    private final Validator validator;
+    private final boolean failFast;
+    private final FieldChecks[] fieldChecks;
+    private final FieldChecks[] deferredChecks;
+
+    private ParameterChecks(final Class<T> clazz, final Validator validator, final boolean failFast,
+                            final List<FieldChecks> fieldChecks, final List<FieldChecks> deferredChecks) {
+        this.clazz = clazz;
+        this.validator = validator;
+        this.failFast = failFast;
+        this.fieldChecks = fieldChecks.toArray(new FieldChecks[0]);
+        this.deferredChecks = deferredChecks.toArray(new FieldChecks[0]);
+    }
+
+    /**
+     * Returns the checks for {@code plan}, or {@code null} if there is nothing to check or the checks can't
+     * reproduce the full validator's result.
+     */
+    static <T> ParameterChecks<T> of(final BindingPlan<T> plan, final Validator validator, final boolean failFast) {
+        final Class<T> clazz = plan.getTargetClass();
+        final BeanDescriptor beanDescriptor = validator.getConstraintsForClass(clazz);
+        boolean coversAllConstraints = beanDescriptor.getConstraintDescriptors().isEmpty()
+                && !clazz.isAnnotationPresent(GroupSequence.class)
+                && !clazz.isAnnotationPresent(GroupSequenceProvider.class);
+
+        final T defaults = plan.newInstance();
+        final List<FieldChecks> fieldChecks = new ArrayList<>();
+        final List<FieldChecks> deferredChecks = new ArrayList<>();
+        for (final PropertyDescriptor property : beanDescriptor.getConstrainedProperties()) {
+            final BindingPlan.FieldBinding binding = findField(plan, property.getPropertyName());
+            final ConstraintFinder fieldConstraints = property.findConstraints().declaredOn(ElementType.FIELD);
+            if (binding == null
+                    || property.isCascaded()
+                    || !property.getConstrainedContainerElementTypes().isEmpty()
+                    || fieldConstraints.getConstraintDescriptors().size() != property.getConstraintDescriptors().size()) {
+                coversAllConstraints = false;
+                continue;
+            }
+
+            final List<ConstraintCheck> checks = new ArrayList<>();
+            for (final ConstraintDescriptor<?> constraint : fieldConstraints.getConstraintDescriptors()) {
+                final Check check = checkFor(constraint, binding.field.getType());
+                if (check == null) {
+                    coversAllConstraints = false;
+                } else {
+                    checks.add(new ConstraintCheck(constraint, check));
+                }
+            }
+            if (checks.isEmpty()) {
+                continue;
+            }
+            final MethodHandle reader = readerFor(binding.field);
+            if (hasSetter(binding.field)) {
+                deferredChecks.add(new FieldChecks(binding, reader, null, checks.toArray(new ConstraintCheck[0])));
+            } else {
+                fieldChecks.add(new FieldChecks(binding, null, FieldChecks.read(reader, binding, defaults),
+                        checks.toArray(new ConstraintCheck[0])));
+            }
+        }
+
+        if ((fieldChecks.isEmpty() && deferredChecks.isEmpty()) || !(coversAllConstraints || failFast)) {
+            return null;
+        }
+        return new ParameterChecks<>(clazz, validator, failFast, fieldChecks, deferredChecks);
+    }
+
+    /**
+     * Checks the converted {@code values} of all fields without a setter. Returns the violations of all rejected
+     * properties (only the first one in fail-fast mode), or {@code null} if nothing was rejected.
+     * <p>
+     * A rejected value becomes a {@link CheckedViolation} right away, whose message is only interpolated when
+     * someone reads it. Rejected NaN values are confirmed by the validator, which also creates their violations.
+     */
+    Set<ConstraintViolation<T>> check(final BindingPlan.Values values) {
+        Set<ConstraintViolation<T>> violations = null;
+        for (final FieldChecks field : this.fieldChecks) {
+            final Object value = values.isAbsent(field.binding) ? field.defaultValue : values.get(field.binding);
+            violations = this.add(violations, this.check(field, value, null));
+            if (violations != null && this.failFast) {
+                return violations;
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Returns whether {@code violations} from {@link #check(BindingPlan.Values)} are already the final result, so
+     * no {@code T} needs to be created: in fail-fast mode, or if there are no deferred checks.
+     */
+    boolean isFinal(final Set<ConstraintViolation<T>> violations) {
+        return violations != null && (this.failFast || this.deferredChecks.length == 0);
+    }
+
+    /**
+     * Runs the deferred checks on the fields of {@code instance} and adds their violations to the ones from
+     * {@link #check(BindingPlan.Values)}, which may be {@code null}. Returns {@code null} if nothing was rejected.
+     */
+    Set<ConstraintViolation<T>> checkAssigned(final T instance, Set<ConstraintViolation<T>> violations) {
+        for (final FieldChecks field : this.deferredChecks) {
+            violations = this.add(violations, this.check(field, field.read(instance), instance));
+            if (violations != null && this.failFast) {
+                return violations;
+            }
+        }
+        return violations;
+    }
+
+    private Set<ConstraintViolation<T>> add(final Set<ConstraintViolation<T>> violations,
+                                            final Set<ConstraintViolation<T>> rejected) {
+        if (rejected == null) {
+            return violations;
+        }
+        if (this.failFast) {
+            return Collections.singleton(rejected.iterator().next());
+        }
+        final Set<ConstraintViolation<T>> merged = violations == null ? new HashSet<>() : violations;
+        merged.addAll(rejected);
+        return merged;
+    }
+
+    /**
+     * Checks {@code value} of {@code field}, which was read from {@code instance} or, if that is {@code null},
+     * converted from a parameter.
+     */
+    private Set<ConstraintViolation<T>> check(final FieldChecks field, final Object value, final T instance) {
+        Set<ConstraintViolation<T>> rejected = null;
+        for (final ConstraintCheck check : field.checks) {
+            if (check.check.isValid(value)) {
+                continue;
+            }
+            if (isNaN(value)) {
+                final Set<ConstraintViolation<T>> confirmed = instance == null
+                        ? this.validator.validateValue(this.clazz, field.binding.field.getName(), value)
+                        : this.validator.validateProperty(instance, field.binding.field.getName());
+                return confirmed.isEmpty() ? null : confirmed;
+            }
+            final CheckedViolation<T> violation = new CheckedViolation<>(this.clazz, instance, this.validator,
+                    field.binding.field.getName(), check, value);
+            if (this.failFast) {
+                return Collections.singleton(violation);
+            }
+            if (rejected == null) {
+                rejected = new HashSet<>();
+            }
+            rejected.add(violation);
+        }
+        return rejected;
+    }
+
+    private static BindingPlan.FieldBinding findField(final BindingPlan<?> plan, final String propertyName) {
+        BindingPlan.FieldBinding found = null;
+        for (final BindingPlan.FieldBinding binding : plan.getFields()) {
+            if (binding.field.getName().equals(propertyName)) {
+                if (found != null) {
+                    // Shadowed by a field of a subclass, can't tell which one the constraint belongs to
+                    return null;
+                }
+                found = binding;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns whether {@code field} may be assigned through a setter, by {@link RuntimeAccessors} or a generated
+     * {@link Binder}. A setter can change the value, e.g. normalize it, so the constraints only apply to what it
+     * assigns and the converted value proves nothing.
+     */
+    private static boolean hasSetter(final Field field) {
+        final String name = "set" + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        for (Class<?> type = field.getDeclaringClass(); type != null && type != Object.class;
+             type = type.getSuperclass()) {
+            for (final Method method : type.getDeclaredMethods()) {
+                if (method.getName().equals(name) && method.getParameterCount() == 1
+                        && method.getParameterTypes()[0] == field.getType()
+                        && !Modifier.isPrivate(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a {@code (Object)Object} handle reading {@code field} itself, without its getter.
+     */
+    private static MethodHandle readerFor(final Field field) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field).asType(READER_TYPE);
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create a reader for " + field, e);
+        }
+    }
+
+    /**
+     * Returns a check which is at least as strict as the constraint's validator, or {@code null} if the constraint
+     * isn't supported for the field's type.
+     */
+    private static Check checkFor(final ConstraintDescriptor<?> constraint, final Class<?> type) {
+        if (!constraint.getComposingConstraints().isEmpty()
+                || !constraint.getGroups().equals(Collections.<Class<?>>singleton(Default.class))) {
+            return null;
+        }
+
+        final Annotation annotation = constraint.getAnnotation();
+        if (annotation instanceof NotNull) {
+            return value -> value != null;
+        }
+        if (annotation instanceof Min) {
+            return numberCheck(type, ((Min) annotation).value(), true);
+        }
+        if (annotation instanceof Max) {
+            return numberCheck(type, ((Max) annotation).value(), false);
+        }
+        if (annotation instanceof Size && CharSequence.class.isAssignableFrom(type)) {
+            final int min = ((Size) annotation).min();
+            final int max = ((Size) annotation).max();
+            return value -> value == null || (((CharSequence) value).length() >= min && ((CharSequence) value).length() <= max);
+        }
+        if (annotation instanceof Pattern && CharSequence.class.isAssignableFrom(type)) {
+            final Pattern pattern = (Pattern) annotation;
+            int flags = 0;
+            for (final Pattern.Flag flag : pattern.flags()) {
+                flags |= flag.getValue();
+            }
+            final java.util.regex.Pattern compiled = java.util.regex.Pattern.compile(pattern.regexp(), flags);
+            return value -> value == null || compiled.matcher((CharSequence) value).matches();
+        }
+        return null;
+    }
+
+    private static boolean isNaN(final Object value) {
+        return (value instanceof Double && ((Double) value).isNaN())
+                || (value instanceof Float && ((Float) value).isNaN());
+    }
+
+    private static Check numberCheck(final Class<?> type, final long bound, final boolean isMin) {
+        if (type == int.class || type == Integer.class || type == long.class || type == Long.class
+                || type == short.class || type == Short.class || type == byte.class || type == Byte.class) {
+            return value -> value == null || (isMin
+                    ? ((Number) value).longValue() >= bound
+                    : ((Number) value).longValue() <= bound);
+        }
+        if (type == float.class || type == Float.class || type == double.class || type == Double.class) {
+            // Like Hibernate Validator: infinities are beyond every bound, finite values are truncated to long and
+            // NaN is rejected here and left to the validator
+            return value -> {
+                if (value == null) {
+                    return true;
+                }
+                final double number = ((Number) value).doubleValue();
+                if (Double.isNaN(number)) {
+                    return false;
+                }
+                if (Double.isInfinite(number)) {
+                    return isMin == number > 0;
+                }
+                return isMin ? (long) number >= bound : (long) number <= bound;
+            };
+        }
+        if (type == BigDecimal.class || type == BigInteger.class) {
+            final BigDecimal decimalBound = BigDecimal.valueOf(bound);
+            return value -> {
+                if (value == null) {
+                    return true;
+                }
+                final BigDecimal decimal = value instanceof BigInteger
+                        ? new BigDecimal((BigInteger) value)
+                        : (BigDecimal) value;
+                return isMin ? decimal.compareTo(decimalBound) >= 0 : decimal.compareTo(decimalBound) <= 0;
+            };
+        }
+        return null;
+    }
+
+    private interface Check {
+        boolean isValid(Object value);
+    }
+
+    /**
+     * One supported constraint with its check. Messages whose template doesn't depend on the validated value, i.e.
+     * has no EL expression, are interpolated once and then cached here.
+     */
+    static final class ConstraintCheck {
+
+        final ConstraintDescriptor<?> descriptor;
+        private final Check check;
+        private final boolean cacheable;
+        private volatile String cachedMessage;
+
+        private ConstraintCheck(final ConstraintDescriptor<?> descriptor, final Check check) {
+            this.descriptor = descriptor;
+            this.check = check;
+            this.cacheable = !descriptor.getMessageTemplate().contains("${");
+        }
+
+        String getCachedMessage() {
+            return this.cachedMessage;
+        }
+
+        void cacheMessage(final String message) {
+            if (this.cacheable) {
+                this.cachedMessage = message;
+            }
+        }
+
+    }
+
+    /**
+     * The checks of one field. Deferred checks read the field through {@code reader}, all others check the
+     * converted value or, if the parameter is absent, {@code defaultValue}.
+     */
+    private static final class FieldChecks {
+
+        private final BindingPlan.FieldBinding binding;
+        private final MethodHandle reader;
+        private final Object defaultValue;
+        private final ConstraintCheck[] checks;
+
+        private FieldChecks(final BindingPlan.FieldBinding binding, final MethodHandle reader,
+                            final Object defaultValue, final ConstraintCheck[] checks) {
+            this.binding = binding;
+            this.reader = reader;
+            this.defaultValue = defaultValue;
+            this.checks = checks;
+        }
+
+        private Object read(final Object instance) {
+            return read(this.reader, this.binding, instance);
+        }
+
+        private static Object read(final MethodHandle reader, final BindingPlan.FieldBinding binding,
+                                   final Object instance) {
+            try {
+                return (Object) reader.invokeExact(instance);
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable e) {
+                throw new RuntimeException("Failed to read " + binding.field, e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,224 @@
+package core;
+
+import javax.validation.ConstraintTarget;
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintViolation;
+import javax.validation.Path;
+import javax.validation.Payload;
+import javax.validation.ValidationException;
+import javax.validation.groups.Default;
+import javax.validation.metadata.ConstraintDescriptor;
+import javax.validation.metadata.ValidateUnwrappedValue;
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Violation of a URL parameter that can't even be mapped to the target class because of a malformed percent-escape.
+ * Its constraint is {@link UrlEncoded}, which no field declares, and its property path is the parameter name. There
+ * is no bean yet, so like for {@link javax.validation.Validator#validateValue} the root and leaf bean are
+ * {@code null}. The message is only put together when it is asked for.
+ */
+final class ParameterViolation<T> implements ConstraintViolation<T> {
+
+    private final Class<T> rootBeanClass;
+    private final String parameterName;
+    private final String invalidValue;
+    private final String reason;
+    private final int index;
+
+    ParameterViolation(final Class<T> rootBeanClass, final String parameterName, final String invalidValue,
+                       final String reason, final int index) {
+        this.rootBeanClass = rootBeanClass;
+        this.parameterName = parameterName;
+        this.invalidValue = invalidValue;
+        this.reason = reason;
+        this.index = index;
+    }
+
+    @Override
+    public String getMessage() {
+        return "'" + this.parameterName + "' is not properly URL encoded: " + this.reason + " at index " + this.index;
+    }
+
+    @Override
+    public String getMessageTemplate() {
+        return this.getMessage();
+    }
+
+    @Override
+    public T getRootBean() {
+        return null;
+    }
+
+    @Override
+    public Class<T> getRootBeanClass() {
+        return this.rootBeanClass;
+    }
+
+    @Override
+    public Object getLeafBean() {
+        return null;
+    }
+
+    @Override
+    public Object[] getExecutableParameters() {
+        return null;
+    }
+
+    @Override
+    public Object getExecutableReturnValue() {
+        return null;
+    }
+
+    @Override
+    public Path getPropertyPath() {
+        return new PropertyPath(this.parameterName);
+    }
+
+    @Override
+    public Object getInvalidValue() {
+        return this.invalidValue;
+    }
+
+    @Override
+    public ConstraintDescriptor<?> getConstraintDescriptor() {
+        return UrlEncodedDescriptor.INSTANCE;
+    }
+
+    @Override
+    public <U> U unwrap(final Class<U> type) {
+        if (type.isInstance(this)) {
+            return type.cast(this);
+        }
+        throw new ValidationException("Type " + type.getName() + " not supported for unwrapping.");
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ParameterViolation)) {
+            return false;
+        }
+        final ParameterViolation<?> other = (ParameterViolation<?>) obj;
+        return this.rootBeanClass == other.rootBeanClass
+                && this.parameterName.equals(other.parameterName)
+                && Objects.equals(this.invalidValue, other.invalidValue)
+                && this.reason.equals(other.reason)
+                && this.index == other.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.rootBeanClass, this.parameterName, this.invalidValue, this.reason, this.index);
+    }
+
+    @Override
+    public String toString() {
+        return "ParameterViolation{" +
+                "parameterName='" + this.parameterName + '\'' +
+                ", invalidValue='" + this.invalidValue + '\'' +
+                ", message='" + this.getMessage() + '\'' +
+                '}';
+    }
+
+    /**
+     * Describes {@link UrlEncoded}, which is checked by {@link Vurlp} itself and has no validator class.
+     */
+    private static final class UrlEncodedDescriptor implements ConstraintDescriptor<UrlEncoded> {
+
+        private static final UrlEncodedDescriptor INSTANCE = new UrlEncodedDescriptor();
+        private static final String MESSAGE_TEMPLATE = "is not properly URL encoded";
+        private static final UrlEncoded ANNOTATION = new UrlEncoded() {
+            @Override
+            public Class<? extends Annotation> annotationType() {
+                return UrlEncoded.class;
+            }
+
+            @Override
+            public boolean equals(final Object obj) {
+                return obj instanceof UrlEncoded;
+            }
+
+            @Override
+            public int hashCode() {
+                return 0;
+            }
+
+            @Override
+            public String toString() {
+                return "@" + UrlEncoded.class.getName() + "()";
+            }
+        };
+
+        @Override
+        public UrlEncoded getAnnotation() {
+            return ANNOTATION;
+        }
+
+        @Override
+        public String getMessageTemplate() {
+            return MESSAGE_TEMPLATE;
+        }
+
+        @Override
+        public Set<Class<?>> getGroups() {
+            return Collections.singleton(Default.class);
+        }
+
+        @Override
+        public Set<Class<? extends Payload>> getPayload() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public ConstraintTarget getValidationAppliesTo() {
+            return null;
+        }
+
+        @Override
+        public List<Class<? extends ConstraintValidator<UrlEncoded, ?>>> getConstraintValidatorClasses() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            final Map<String, Object> attributes = new HashMap<>();
+            attributes.put("message", MESSAGE_TEMPLATE);
+            attributes.put("groups", new Class<?>[]{Default.class});
+            attributes.put("payload", new Class<?>[0]);
+            return attributes;
+        }
+
+        @Override
+        public Set<ConstraintDescriptor<?>> getComposingConstraints() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public boolean isReportAsSingleViolation() {
+            return false;
+        }
+
+        @Override
+        public ValidateUnwrappedValue getValueUnwrapping() {
+            return ValidateUnwrappedValue.DEFAULT;
+        }
+
+        @Override
+        public <U> U unwrap(final Class<U> type) {
+            if (type.isInstance(this)) {
+                return type.cast(this);
+            }
+            throw new ValidationException("Type " + type.getName() + " not supported for unwrapping.");
+        }
+
+    }
+
+}
@@ -0,0 +1,291 @@
+package core;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Percent-encoding and -decoding of {@code application/x-www-form-urlencoded} values with UTF-8 as charset.
+ * Produces the same strings as {@link java.net.URLEncoder} and {@link java.net.URLDecoder}, but never looks up a
+ * charset, writes straight into the caller's buffer and returns the original slice if there is nothing to decode.
+ */
+final class PercentCodec {
+
+    private static final char REPLACEMENT = '\uFFFD';
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final boolean[] SAFE = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            SAFE[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            SAFE[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            SAFE[c] = true;
+        }
+        SAFE['.'] = true;
+        SAFE['-'] = true;
+        SAFE['*'] = true;
+        SAFE['_'] = true;
+    }
+
+    private PercentCodec() {
+    }
+
+    /**
+     * Appends {@code value} to {@code out}, with spaces as {@code '+'} and all unsafe characters as escaped UTF-8
+     * bytes. Unpaired surrogates are written as {@code '?'}, like the charset encoder behind {@code URLEncoder}
+     * does.
+     */
+    static void encode(final CharSequence value, final StringBuilder out) {
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                if (SAFE[c]) {
+                    out.append(c);
+                } else if (c == ' ') {
+                    out.append('+');
+                } else {
+                    appendEscaped(c, out);
+                }
+            } else if (c < 0x800) {
+                appendEscaped(0xC0 | (c >> 6), out);
+                appendEscaped(0x80 | (c & 0x3F), out);
+            } else if (!Character.isSurrogate(c)) {
+                appendEscaped(0xE0 | (c >> 12), out);
+                appendEscaped(0x80 | ((c >> 6) & 0x3F), out);
+                appendEscaped(0x80 | (c & 0x3F), out);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                appendEscaped(0xF0 | (codePoint >> 18), out);
+                appendEscaped(0x80 | ((codePoint >> 12) & 0x3F), out);
+                appendEscaped(0x80 | ((codePoint >> 6) & 0x3F), out);
+                appendEscaped(0x80 | (codePoint & 0x3F), out);
+            } else {
+                appendEscaped('?', out);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeUtf8} writes for {@code value}.
+     */
+    static int utf8Length(final CharSequence value) {
+        final int length = value.length();
+        int bytes = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 3;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes++;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes {@code value} to {@code out} as UTF-8, with unpaired surrogates as {@code '?'} like in
+     * {@link #encode}. An encoded query is plain ASCII, so this is one byte per char then.
+     */
+    static void writeUtf8(final CharSequence value, final ByteBuffer out) {
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (!Character.isSurrogate(c)) {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xF0 | (codePoint >> 18)));
+                out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                out.put((byte) '?');
+            }
+        }
+    }
+
+    /**
+     * Decodes {@code source[start, end)}. Values without {@code '%'} or {@code '+'} are returned as slice, all
+     * others are decoded into {@code buffer}, which is cleared first.
+     *
+     * @throws MalformedEscapeException if a {@code '%'} isn't followed by two hex digits
+     */
+    static String decode(final CharSequence source, final int start, final int end, final StringBuilder buffer) {
+        int position = start;
+        while (position < end) {
+            final char c = source.charAt(position);
+            if (c == '%' || c == '+') {
+                break;
+            }
+            position++;
+        }
+        if (position == end) {
+            return source.subSequence(start, end).toString();
+        }
+
+        buffer.setLength(0);
+        buffer.append(source, start, position);
+        decodeTo(source, position, end, buffer);
+        return buffer.toString();
+    }
+
+    /**
+     * Returns whether {@code source[start, end)} contains anything to decode. Throws the same
+     * {@link MalformedEscapeException} as {@link #decode} would, without decoding anything.
+     */
+    static boolean needsDecoding(final CharSequence source, final int start, final int end) {
+        boolean needsDecoding = false;
+        int position = start;
+        while (position < end) {
+            final char c = source.charAt(position);
+            if (c == '%') {
+                // Every escape is read on its own while decoding, so the first malformed one is the same
+                escapedByte(source, position, end);
+                needsDecoding = true;
+                position += 3;
+            } else {
+                needsDecoding |= c == '+';
+                position++;
+            }
+        }
+        return needsDecoding;
+    }
+
+    /**
+     * Appends the decoded {@code source[start, end)} to {@code out}.
+     */
+    static void decodeTo(final CharSequence source, final int start, final int end, final StringBuilder out) {
+        int position = start;
+        while (position < end) {
+            final char c = source.charAt(position);
+            if (c == '%') {
+                position = decodeUtf8(source, position, end, out);
+            } else {
+                out.append(c == '+' ? ' ' : c);
+                position++;
+            }
+        }
+    }
+
+    /**
+     * Decodes one UTF-8 sequence of escaped bytes starting at {@code source[position] == '%'}. Malformed sequences
+     * become a single U+FFFD, just like {@code new String(bytes, UTF_8)} does. Returns the position after the
+     * sequence.
+     */
+    private static int decodeUtf8(final CharSequence source, int position, final int end, final StringBuilder buffer) {
+        final int b0 = escapedByte(source, position, end);
+        position += 3;
+        if (b0 < 0x80) {
+            buffer.append((char) b0);
+            return position;
+        }
+
+        final int length;
+        int min1 = 0x80;
+        int max1 = 0xBF;
+        if (b0 >= 0xC2 && b0 <= 0xDF) {
+            length = 2;
+        } else if (b0 >= 0xE0 && b0 <= 0xEF) {
+            length = 3;
+            if (b0 == 0xE0) {
+                min1 = 0xA0;
+            }
+        } else if (b0 >= 0xF0 && b0 <= 0xF4) {
+            length = 4;
+            if (b0 == 0xF0) {
+                min1 = 0x90;
+            } else if (b0 == 0xF4) {
+                max1 = 0x8F;
+            }
+        } else {
+            buffer.append(REPLACEMENT);
+            return position;
+        }
+
+        int codePoint = b0 & (0xFF >> (length + 1));
+        for (int i = 1; i < length; i++) {
+            final int b = position < end && source.charAt(position) == '%' ? escapedByte(source, position, end) : -1;
+            if (b < (i == 1 ? min1 : 0x80) || b > (i == 1 ? max1 : 0xBF)) {
+                buffer.append(REPLACEMENT);
+                return position;
+            }
+            codePoint = (codePoint << 6) | (b & 0x3F);
+            position += 3;
+        }
+        // Encoded surrogates are well-formed bytes but no valid character
+        if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+            buffer.append(REPLACEMENT);
+        } else {
+            buffer.appendCodePoint(codePoint);
+        }
+        return position;
+    }
+
+    private static void appendEscaped(final int b, final StringBuilder out) {
+        out.append('%').append(HEX_DIGITS[b >> 4]).append(HEX_DIGITS[b & 0xF]);
+    }
+
+    private static int escapedByte(final CharSequence source, final int position, final int end) {
+        if (position + 2 >= end) {
+            throw new MalformedEscapeException(position, "incomplete trailing escape (%) pattern");
+        }
+        final int high = hexValue(source.charAt(position + 1));
+        final int low = hexValue(source.charAt(position + 2));
+        if (high < 0 || low < 0) {
+            throw new MalformedEscapeException(position, "illegal hex characters in escape (%) pattern");
+        }
+        return (high << 4) | low;
+    }
+
+    private static int hexValue(final char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * Thrown for escapes {@link java.net.URLDecoder} would reject. It carries no stack trace, since it is part of
+     * normal control flow for junk input and is always turned into a violation.
+     */
+    static final class MalformedEscapeException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+
+        MalformedEscapeException(final int index, final String message) {
+            super(message, null, false, false);
+            this.index = index;
+        }
+
+        int getIndex() {
+            return this.index;
+        }
+
+    }
+
+}
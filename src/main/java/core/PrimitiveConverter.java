@@ -0,0 +1,35 @@
+package core;
+
+/**
+ * {@link Converter} for a primitive type and its wrapper, which hands over values as raw {@code long} bits so that
+ * primitive fields are written and read without boxing. The bits are the value widened to {@code long} for
+ * integral types and {@code char}, {@code 0} or {@code 1} for {@code boolean},
+ * {@link Float#floatToRawIntBits(float)} for {@code float} and {@link Double#doubleToRawLongBits(double)} for
+ * {@code double}, see {@link BindingPlan.Accessor}.
+ */
+abstract class PrimitiveConverter implements Converter {
+
+    /**
+     * Parses the decoded value in {@code source[start, end)}. Throws the same exceptions as the boxing
+     * {@link #fromString(String)}.
+     */
+    abstract long parse(CharSequence source, int start, int end);
+
+    abstract Object box(long bits);
+
+    /**
+     * Appends the formatted value, percent-encoded if needed and {@code shouldUseUrlEncoding} is set.
+     */
+    abstract void append(long bits, StringBuilder out, boolean shouldUseUrlEncoding);
+
+    @Override
+    public Object fromString(final String value) {
+        return this.box(this.parse(value, 0, value.length()));
+    }
+
+    @Override
+    public Object fromChars(final CharSequence source, final int start, final int end) {
+        return this.box(this.parse(source, start, end));
+    }
+
+}
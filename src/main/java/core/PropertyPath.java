@@ -0,0 +1,98 @@
+package core;
+
+import javax.validation.ElementKind;
+import javax.validation.Path;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * {@link Path} of a violation found before a bean exists, which is a single property node named after a field or
+ * URL parameter. Its string form is the bare name, like Hibernate Validator's for a top-level property.
+ */
+final class PropertyPath implements Path {
+
+    private final PropertyNode node;
+
+    PropertyPath(final String name) {
+        this.node = new PropertyNode(name);
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return Collections.<Node>singleton(this.node).iterator();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return this == obj || (obj instanceof PropertyPath && this.node.name.equals(((PropertyPath) obj).node.name));
+    }
+
+    @Override
+    public int hashCode() {
+        return this.node.name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.node.name;
+    }
+
+    private static final class PropertyNode implements Path.PropertyNode {
+
+        private final String name;
+
+        private PropertyNode(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+
+        @Override
+        public boolean isInIterable() {
+            return false;
+        }
+
+        @Override
+        public Integer getIndex() {
+            return null;
+        }
+
+        @Override
+        public Object getKey() {
+            return null;
+        }
+
+        @Override
+        public ElementKind getKind() {
+            return ElementKind.PROPERTY;
+        }
+
+        @Override
+        public <N extends Node> N as(final Class<N> nodeType) {
+            if (nodeType.isInstance(this)) {
+                return nodeType.cast(this);
+            }
+            throw new ClassCastException("Type " + nodeType.getName() + " not supported for " + ElementKind.PROPERTY);
+        }
+
+        @Override
+        public Class<?> getContainerClass() {
+            return null;
+        }
+
+        @Override
+        public Integer getTypeArgumentIndex() {
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return this.name;
+        }
+
+    }
+
+}
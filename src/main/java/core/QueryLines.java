@@ -0,0 +1,70 @@
+package core;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Finds the lines of a buffer of newline-separated URLs or query strings, and the query string in each of them,
+ * by index and without decoding anything. Lines end at {@code '\n'}, a {@code '\r'} before it isn't part of the line.
+ */
+final class QueryLines {
+
+    private QueryLines() {
+    }
+
+    /**
+     * Returns the index of the {@code '\n'} ending the line at {@code start}, or {@code limit} for the last line.
+     */
+    static int endOfLine(final ByteBuffer bytes, final int start, final int limit) {
+        int position = start;
+        while (position < limit && bytes.get(position) != '\n') {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the end of the line from {@code start} to {@code end} without a trailing {@code '\r'}.
+     */
+    static int trimEnd(final ByteBuffer bytes, final int start, final int end) {
+        return end > start && bytes.get(end - 1) == '\r' ? end - 1 : end;
+    }
+
+    /**
+     * Returns where the query string of the line from {@code start} to {@code end} begins, which is after the first
+     * {@code '?'}. A line without {@code '?'} is taken as query string itself, unless it starts with {@code '/'} or
+     * has a scheme before any {@code '='} or {@code '&'}, which makes it a URL without query: then this is
+     * {@code end}.
+     */
+    static int queryStart(final ByteBuffer bytes, final int start, final int end) {
+        boolean url = start < end && bytes.get(start) == '/';
+        boolean pairs = false;
+        for (int position = start; position < end; position++) {
+            final byte b = bytes.get(position);
+            if (b == '?') {
+                return position + 1;
+            }
+            if (b == '#') {
+                break;
+            }
+            if (b == '=' || b == '&') {
+                pairs = true;
+            } else if (b == ':' && !pairs && position + 2 < end
+                    && bytes.get(position + 1) == '/' && bytes.get(position + 2) == '/') {
+                url = true;
+            }
+        }
+        return url ? end : start;
+    }
+
+    /**
+     * Returns where the query string from {@code start} ends, which is before a fragment or at {@code end}.
+     */
+    static int queryEnd(final ByteBuffer bytes, final int start, final int end) {
+        int position = start;
+        while (position < end && bytes.get(position) != '#') {
+            position++;
+        }
+        return position;
+    }
+
+}
@@ -0,0 +1,234 @@
+package core;
+
+import com.google.gson.JsonParseException;
+
+import javax.validation.ConstraintViolation;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Binds and validates every line of a file of newline-separated URLs or query strings, like an access log, and
+ * aggregates the outcome into {@link QueryLogStats}. The file is memory-mapped in chunks which end on line
+ * boundaries, and the chunks are processed in parallel on a {@link ForkJoinPool}. Only the query string of each line
+ * is parsed, straight from the mapped bytes, see {@link QueryLines#queryStart} for how it is found.
+ * <p>
+ * Besides binding, every parameter of a line is counted with its decoded value, whether the line is valid or not.
+ * A processor holds no state of its own and can process several files at once.
+ */
+public final class QueryLogProcessor<T> {
+
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final int MAX_CHUNK_SIZE = 64 << 20;
+    private static final int DEFAULT_MAX_DISTINCT_VALUES = 10_000;
+
+    private final Vurlp<T> vurlp;
+    private final Charset charset;
+    private final ForkJoinPool pool;
+    private final int maxDistinctValues;
+
+    public QueryLogProcessor(final Vurlp<T> vurlp) {
+        this(vurlp, StandardCharsets.UTF_8, ForkJoinPool.commonPool(), DEFAULT_MAX_DISTINCT_VALUES);
+    }
+
+    /**
+     * @param charset           of the file, which must encode ASCII as single bytes, as UTF-8 and ISO-8859-1 do,
+     *                          since lines and parameters are split on ASCII bytes
+     * @param maxDistinctValues the number of values per parameter, and of parameters, the histograms keep
+     */
+    public QueryLogProcessor(final Vurlp<T> vurlp, final Charset charset, final ForkJoinPool pool,
+                             final int maxDistinctValues) {
+        if (maxDistinctValues < 0) {
+            throw new IllegalArgumentException("maxDistinctValues must not be negative: " + maxDistinctValues);
+        }
+        if (!AsciiByteSequence.isAsciiCompatible(charset)) {
+            throw new IllegalArgumentException("charset must encode ASCII as single bytes: " + charset);
+        }
+        this.vurlp = Objects.requireNonNull(vurlp);
+        this.charset = Objects.requireNonNull(charset);
+        this.pool = Objects.requireNonNull(pool);
+        this.maxDistinctValues = maxDistinctValues;
+    }
+
+    public QueryLogStats process(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long[] bounds = this.chunkBounds(channel);
+            if (bounds.length < 2) {
+                return new QueryLogStats(this.maxDistinctValues);
+            }
+            return this.pool.invoke(new ChunkTask(channel, bounds, 0, bounds.length - 1));
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Splits the file into chunks of about a quarter of what each worker of the pool should get, so that workers
+     * which are done early can take over some of the others. Every chunk but the last ends after a {@code '\n'}.
+     */
+    private long[] chunkBounds(final FileChannel channel) throws IOException {
+        final long size = channel.size();
+        final long chunkSize = Math.max(MIN_CHUNK_SIZE,
+                Math.min(MAX_CHUNK_SIZE, size / (this.pool.getParallelism() * 4L)));
+        final ByteBuffer scan = ByteBuffer.allocate(8192);
+        long[] bounds = new long[16];
+        int count = 0;
+        long start = 0;
+        while (start < size) {
+            if (count + 1 >= bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            bounds[count++] = start;
+            final long end = start + chunkSize >= size ? size : afterNextNewline(channel, start + chunkSize, scan);
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("Line at " + start + " is too long to be mapped");
+            }
+            start = end;
+        }
+        if (count > 0) {
+            bounds[count++] = size;
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static long afterNextNewline(final FileChannel channel, long position, final ByteBuffer scan)
+            throws IOException {
+        while (true) {
+            scan.clear();
+            final int read = channel.read(scan, position);
+            if (read < 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    private QueryLogStats processChunk(final FileChannel channel, final long start, final long end) {
+        final MappedByteBuffer bytes;
+        try {
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final QueryLogStats stats = new QueryLogStats(this.maxDistinctValues);
+        final int limit = bytes.limit();
+        try (Vurlp<T>.BatchParser parser = this.vurlp.batchParser()) {
+            final ValueCounter counter = new ValueCounter(stats, parser.shouldDecode());
+            int lineStart = 0;
+            while (lineStart < limit) {
+                final int lineEnd = QueryLines.endOfLine(bytes, lineStart, limit);
+                final int contentEnd = QueryLines.trimEnd(bytes, lineStart, lineEnd);
+                if (contentEnd > lineStart) {
+                    final int queryStart = QueryLines.queryStart(bytes, lineStart, contentEnd);
+                    final int queryEnd = QueryLines.queryEnd(bytes, queryStart, contentEnd);
+                    final CharSequence query =
+                            AsciiByteSequence.ofAsciiCompatible(bytes, queryStart, queryEnd, this.charset);
+                    this.processQuery(query, parser, counter, stats);
+                }
+                lineStart = lineEnd + 1;
+            }
+        }
+        return stats;
+    }
+
+    private void processQuery(final CharSequence query, final Vurlp<T>.BatchParser parser,
+                              final ValueCounter counter, final QueryLogStats stats) {
+        final Object result;
+        try {
+            result = parser.parse(query);
+        } catch (final JsonParseException | NumberFormatException e) {
+            stats.countUnconvertible();
+            QueryTokenizer.tokenize(query, counter);
+            return;
+        }
+        if (parser.isValid(result)) {
+            stats.countValid();
+        } else {
+            @SuppressWarnings("unchecked") final Set<ConstraintViolation<?>> violations =
+                    (Set<ConstraintViolation<?>>) result;
+            stats.countInvalid(violations);
+        }
+        QueryTokenizer.tokenize(query, counter);
+    }
+
+    /**
+     * Counts every parameter of a query with its decoded value. Malformed escapes are counted as they are.
+     */
+    private static final class ValueCounter implements QueryTokenizer.Sink {
+
+        private final QueryLogStats stats;
+        private final boolean shouldDecode;
+        private final StringBuilder buffer = new StringBuilder();
+
+        private ValueCounter(final QueryLogStats stats, final boolean shouldDecode) {
+            this.stats = stats;
+            this.shouldDecode = shouldDecode;
+        }
+
+        @Override
+        public void accept(final CharSequence query, final int keyStart, final int keyEnd, final int valueStart,
+                           final int valueEnd) {
+            final String name = this.decode(query, keyStart, keyEnd);
+            this.stats.countValue(name, valueStart < 0 ? "" : this.decode(query, valueStart, valueEnd));
+        }
+
+        private String decode(final CharSequence query, final int start, final int end) {
+            if (this.shouldDecode) {
+                try {
+                    return PercentCodec.decode(query, start, end, this.buffer);
+                } catch (final PercentCodec.MalformedEscapeException e) {
+                    // Counted as they came, the violation is counted by the binding already
+                }
+            }
+            return query.subSequence(start, end).toString();
+        }
+
+    }
+
+    @SuppressWarnings("serial")
+    private final class ChunkTask extends RecursiveTask<QueryLogStats> {
+
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+
+        private ChunkTask(final FileChannel channel, final long[] bounds, final int from, final int to) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected QueryLogStats compute() {
+            if (this.to - this.from == 1) {
+                return QueryLogProcessor.this.processChunk(this.channel, this.bounds[this.from],
+                        this.bounds[this.to]);
+            }
+            final int middle = (this.from + this.to) >>> 1;
+            final ChunkTask right = new ChunkTask(this.channel, this.bounds, middle, this.to);
+            right.fork();
+            final QueryLogStats left = new ChunkTask(this.channel, this.bounds, this.from, middle).compute();
+            return left.merge(right.join());
+        }
+
+    }
+
+}
@@ -0,0 +1,284 @@
+package core;
+
+import javax.validation.ConstraintViolation;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Aggregates of a query log read by {@link QueryLogProcessor}: how many lines were valid, how often each constraint
+ * was violated and which values each parameter had. Each part of the log is counted into its own instance, and the
+ * parts are merged once they are done, so instances aren't thread-safe while they are filled.
+ * <p>
+ * Histograms keep at most {@code maxDistinctValues} values per parameter and as many parameter names, names which
+ * don't fit aren't counted at all. Values are summarized like in Misra and Gries' frequent items algorithm: once a
+ * histogram is full, a new value lowers every count by one instead of being added, and values whose count drops to
+ * zero are removed. Counts are therefore lower bounds, which are at most {@code getOtherValues(name) /
+ * (maxDistinctValues + 1)} too low, and every value which occurred more often than that is kept, regardless of where
+ * in the log it first occurred. Merging the histograms of the parts keeps that bound, so the exact counts may depend
+ * on how the log was split, but the bound and the values it guarantees don't.
+ */
+public final class QueryLogStats {
+
+    private static final Comparator<Entry<String, long[]>> BY_COUNT =
+            Comparator.<Entry<String, long[]>>comparingLong(entry -> entry.getValue()[0]).reversed()
+                    .thenComparing(Entry::getKey);
+
+    private final int maxDistinctValues;
+    private final Map<String, long[]> invalidCounts = new HashMap<>();
+    private final Map<String, Histogram> histograms = new HashMap<>();
+    private long lines;
+    private long validLines;
+    private long invalidLines;
+    private long unconvertibleLines;
+
+    QueryLogStats(final int maxDistinctValues) {
+        this.maxDistinctValues = maxDistinctValues;
+    }
+
+    /**
+     * Returns the number of lines read, without empty lines.
+     */
+    public long getLines() {
+        return this.lines;
+    }
+
+    public long getValidLines() {
+        return this.validLines;
+    }
+
+    /**
+     * Returns the number of lines with violations, see {@link #getInvalidCounts()}.
+     */
+    public long getInvalidLines() {
+        return this.invalidLines;
+    }
+
+    /**
+     * Returns the number of lines with values which can't even be converted to their field's type, like
+     * {@code count=abc} for an {@code int}. {@code fromParams} throws for those.
+     */
+    public long getUnconvertibleLines() {
+        return this.unconvertibleLines;
+    }
+
+    /**
+     * Returns how often each constraint was violated, most frequent first. Keys are the property path and the
+     * constraint, like {@code "floatObject @NotNull"}, or {@code "q @UrlEncoded"} for values which aren't properly
+     * URL encoded, see {@link UrlEncoded}.
+     */
+    public Map<String, Long> getInvalidCounts() {
+        return sorted(this.invalidCounts);
+    }
+
+    /**
+     * Returns the names of all parameters with a histogram, in alphabetical order.
+     */
+    public Set<String> getParameterNames() {
+        return Collections.unmodifiableSet(new TreeSet<>(this.histograms.keySet()));
+    }
+
+    /**
+     * Returns how often each decoded value of {@code name} occurred, most frequent first. Parameters without value,
+     * like {@code flag} in {@code "?flag&a=1"}, are counted with an empty value. Counts are exact as long as there
+     * are at most {@code maxDistinctValues} different values, see the class doc for the bound otherwise.
+     */
+    public Map<String, Long> getHistogram(final String name) {
+        final Histogram histogram = this.histograms.get(name);
+        return histogram == null ? Collections.emptyMap() : sorted(histogram.counts);
+    }
+
+    /**
+     * Returns how many occurrences of values of {@code name} aren't in its histogram, because it was full: those of
+     * removed values and those the kept counts were lowered by.
+     */
+    public long getOtherValues(final String name) {
+        final Histogram histogram = this.histograms.get(name);
+        return histogram == null ? 0 : histogram.others();
+    }
+
+    /**
+     * Returns the {@code n} most frequent values of {@code name}, most frequent first and equally frequent ones in
+     * alphabetical order.
+     */
+    public List<Entry<String, Long>> getTopValues(final String name, final int n) {
+        final Histogram histogram = this.histograms.get(name);
+        if (histogram == null || n <= 0) {
+            return Collections.emptyList();
+        }
+        final PriorityQueue<Entry<String, long[]>> top = new PriorityQueue<>(n + 1, BY_COUNT.reversed());
+        for (final Entry<String, long[]> entry : histogram.counts.entrySet()) {
+            top.add(entry);
+            if (top.size() > n) {
+                top.poll();
+            }
+        }
+        final List<Entry<String, Long>> values = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            final Entry<String, long[]> entry = top.poll();
+            values.add(new SimpleImmutableEntry<>(entry.getKey(), entry.getValue()[0]));
+        }
+        Collections.reverse(values);
+        return Collections.unmodifiableList(values);
+    }
+
+    void countValid() {
+        this.lines++;
+        this.validLines++;
+    }
+
+    void countInvalid(final Set<? extends ConstraintViolation<?>> violations) {
+        this.lines++;
+        this.invalidLines++;
+        for (final ConstraintViolation<?> violation : violations) {
+            increment(this.invalidCounts, constraintOf(violation), 1);
+        }
+    }
+
+    void countUnconvertible() {
+        this.lines++;
+        this.unconvertibleLines++;
+    }
+
+    void countValue(final String name, final String value) {
+        Histogram histogram = this.histograms.get(name);
+        if (histogram == null) {
+            if (this.histograms.size() >= this.maxDistinctValues) {
+                return;
+            }
+            histogram = new Histogram();
+            this.histograms.put(name, histogram);
+        }
+        histogram.count(value, this.maxDistinctValues);
+    }
+
+    /**
+     * Adds the counts of {@code other} to this.
+     */
+    QueryLogStats merge(final QueryLogStats other) {
+        this.lines += other.lines;
+        this.validLines += other.validLines;
+        this.invalidLines += other.invalidLines;
+        this.unconvertibleLines += other.unconvertibleLines;
+        for (final Entry<String, long[]> entry : other.invalidCounts.entrySet()) {
+            increment(this.invalidCounts, entry.getKey(), entry.getValue()[0]);
+        }
+        for (final Entry<String, Histogram> entry : other.histograms.entrySet()) {
+            Histogram histogram = this.histograms.get(entry.getKey());
+            if (histogram == null) {
+                if (this.histograms.size() >= this.maxDistinctValues) {
+                    continue;
+                }
+                histogram = new Histogram();
+                this.histograms.put(entry.getKey(), histogram);
+            }
+            histogram.merge(entry.getValue(), this.maxDistinctValues);
+        }
+        return this;
+    }
+
+    private static String constraintOf(final ConstraintViolation<?> violation) {
+        return violation.getPropertyPath() + " @"
+                + violation.getConstraintDescriptor().getAnnotation().annotationType().getSimpleName();
+    }
+
+    private static void increment(final Map<String, long[]> counts, final String key, final long count) {
+        final long[] value = counts.get(key);
+        if (value == null) {
+            counts.put(key, new long[]{count});
+        } else {
+            value[0] += count;
+        }
+    }
+
+    private static Map<String, Long> sorted(final Map<String, long[]> counts) {
+        final List<Entry<String, long[]>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(BY_COUNT);
+        final Map<String, Long> sorted = new LinkedHashMap<>();
+        for (final Entry<String, long[]> entry : entries) {
+            sorted.put(entry.getKey(), entry.getValue()[0]);
+        }
+        return Collections.unmodifiableMap(sorted);
+    }
+
+    @Override
+    public String toString() {
+        return "QueryLogStats{" +
+                "lines=" + this.lines +
+                ", validLines=" + this.validLines +
+                ", invalidLines=" + this.invalidLines +
+                ", unconvertibleLines=" + this.unconvertibleLines +
+                ", invalidCounts=" + this.getInvalidCounts() +
+                '}';
+    }
+
+    private static final class Histogram {
+
+        private final Map<String, long[]> counts = new HashMap<>();
+        private long total;
+
+        private void count(final String value, final int maxDistinctValues) {
+            this.total++;
+            final long[] current = this.counts.get(value);
+            if (current != null) {
+                current[0]++;
+            } else if (this.counts.size() < maxDistinctValues) {
+                this.counts.put(value, new long[]{1});
+            } else {
+                this.decrement(1);
+            }
+        }
+
+        /**
+         * Adds the counts of {@code other} and, if that keeps too many values, lowers every count by the
+         * {@code maxDistinctValues + 1}-th largest one.
+         */
+        private void merge(final Histogram other, final int maxDistinctValues) {
+            this.total += other.total;
+            for (final Entry<String, long[]> entry : other.counts.entrySet()) {
+                increment(this.counts, entry.getKey(), entry.getValue()[0]);
+            }
+            if (this.counts.size() > maxDistinctValues) {
+                final long[] sorted = new long[this.counts.size()];
+                int i = 0;
+                for (final long[] count : this.counts.values()) {
+                    sorted[i++] = count[0];
+                }
+                Arrays.sort(sorted);
+                this.decrement(sorted[sorted.length - 1 - maxDistinctValues]);
+            }
+        }
+
+        private void decrement(final long amount) {
+            final Iterator<long[]> counts = this.counts.values().iterator();
+            while (counts.hasNext()) {
+                final long[] count = counts.next();
+                count[0] -= amount;
+                if (count[0] <= 0) {
+                    counts.remove();
+                }
+            }
+        }
+
+        private long others() {
+            long kept = 0;
+            for (final long[] count : this.counts.values()) {
+                kept += count[0];
+            }
+            return this.total - kept;
+        }
+
+    }
+
+}
@@ -0,0 +1,51 @@
+package core;
+
+/**
+ * Single-pass scanner over a URL query string. It walks the query once by index and reports each
+ * {@code key=value} pair as index ranges, so callers only create substrings for the pairs they keep.
+ */
+final class QueryTokenizer {
+
+    /**
+     * Receives the ranges of one parameter. {@code valueStart} is {@code -1} if the pair has no {@code '='}.
+     */
+    interface Sink {
+        void accept(CharSequence query, int keyStart, int keyEnd, int valueStart, int valueEnd);
+    }
+
+    private QueryTokenizer() {
+    }
+
+    /**
+     * Tokenizes {@code query}, skipping an optional leading {@code '?'} and empty pairs like in {@code "a=1&&b=2"}.
+     */
+    static void tokenize(final CharSequence query, final Sink sink) {
+        final int length = query.length();
+        int position = length > 0 && query.charAt(0) == '?' ? 1 : 0;
+
+        while (position < length) {
+            final int keyStart = position;
+            int keyEnd = -1;
+            while (position < length) {
+                final char c = query.charAt(position);
+                if (c == '&') {
+                    break;
+                }
+                if (c == '=' && keyEnd < 0) {
+                    keyEnd = position;
+                }
+                position++;
+            }
+
+            if (position > keyStart) {
+                if (keyEnd < 0) {
+                    sink.accept(query, keyStart, position, -1, -1);
+                } else {
+                    sink.accept(query, keyStart, keyEnd, keyEnd + 1, position);
+                }
+            }
+            position++;
+        }
+    }
+
+}
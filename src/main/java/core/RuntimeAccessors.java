@@ -0,0 +1,329 @@
+package core;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Field accessors and factories for classes without a generated {@link Binder}, built once per class at runtime.
+ * Public setters and no-arg constructors of public classes are bound through {@link LambdaMetafactory},
+ * so they are called like a lambda. That needs the classes involved to be visible from this library's class loader,
+ * which isn't the case for classes of a child or sibling class loader. Those and everything else go through a
+ * {@link MethodHandle}.
+ * <p>
+ * Like the generated binders, a field's setter is used to write it if it exists, e.g. {@code setFloatObject} for
+ * {@code floatObject}. Fields are always read directly, like Gson does, so a getter which transforms the value
+ * doesn't change what is serialized. Primitive fields additionally get handles taking and returning raw bits, see
+ * {@link PrimitiveConverter}, which are adapted once so that no value is ever boxed.
+ */
+final class RuntimeAccessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType GET_BITS_TYPE = MethodType.methodType(long.class, Object.class);
+    private static final MethodType SET_BITS_TYPE = MethodType.methodType(void.class, Object.class, long.class);
+
+    private static final ClassValue<Map<String, BindingPlan.Accessor>> accessorsByClass =
+            new ClassValue<Map<String, BindingPlan.Accessor>>() {
+                @Override
+                protected Map<String, BindingPlan.Accessor> computeValue(final Class<?> type) {
+                    final Map<String, BindingPlan.Accessor> accessors = new HashMap<>();
+                    for (final Field field : type.getDeclaredFields()) {
+                        if (!Modifier.isStatic(field.getModifiers())) {
+                            accessors.put(field.getName(), createAccessor(field));
+                        }
+                    }
+                    return accessors;
+                }
+            };
+
+    private RuntimeAccessors() {
+    }
+
+    /**
+     * Returns the cached accessor for the non-static {@code field}.
+     */
+    static BindingPlan.Accessor accessorFor(final Field field) {
+        return accessorsByClass.get(field.getDeclaringClass()).get(field.getName());
+    }
+
+    /**
+     * Returns a factory invoking the no-arg {@code constructor}.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> BindingPlan.Factory<T> factoryFor(final Constructor<T> constructor) {
+        final Class<T> clazz = constructor.getDeclaringClass();
+        try {
+            if (isPublic(clazz) && Modifier.isPublic(constructor.getModifiers())) {
+                final MethodHandle handle = LOOKUP.findConstructor(clazz, MethodType.methodType(void.class));
+                final Supplier<Object> supplier = (Supplier<Object>) lambda(Supplier.class, "get", FACTORY_TYPE,
+                        handle, handle.type());
+                if (supplier != null) {
+                    return () -> (T) supplier.get();
+                }
+            }
+            constructor.setAccessible(true);
+            final MethodHandle handle = LOOKUP.unreflectConstructor(constructor).asType(FACTORY_TYPE);
+            return () -> {
+                try {
+                    return (T) handle.invokeExact();
+                } catch (final RuntimeException | Error e) {
+                    throw e;
+                } catch (final Throwable e) {
+                    throw new RuntimeException("Failed to invoke " + constructor + " with no args", e);
+                }
+            };
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create a factory for " + clazz, e);
+        }
+    }
+
+    private static BindingPlan.Accessor createAccessor(final Field field) {
+        final Function<Object, Object> getter = getterFor(field);
+        final BiConsumer<Object, Object> setter = setterFor(field);
+        final MethodHandle getBits = field.getType().isPrimitive() ? getBitsHandleFor(field) : null;
+        final MethodHandle setBits = field.getType().isPrimitive() ? setBitsHandleFor(field) : null;
+        return new BindingPlan.Accessor() {
+            @Override
+            public Object get(final Object instance) {
+                return getter.apply(instance);
+            }
+
+            @Override
+            public void set(final Object instance, final Object value) {
+                setter.accept(instance, value);
+            }
+
+            @Override
+            public long getBits(final Object instance) {
+                if (getBits == null) {
+                    throw new IllegalStateException(field + " is not primitive");
+                }
+                try {
+                    return (long) getBits.invokeExact(instance);
+                } catch (final RuntimeException | Error e) {
+                    throw e;
+                } catch (final Throwable e) {
+                    throw new RuntimeException("Failed to read " + field, e);
+                }
+            }
+
+            @Override
+            public void setBits(final Object instance, final long bits) {
+                if (setBits == null) {
+                    throw new IllegalStateException(field + " is not primitive");
+                }
+                try {
+                    setBits.invokeExact(instance, bits);
+                } catch (final RuntimeException | Error e) {
+                    throw e;
+                } catch (final Throwable e) {
+                    throw new RuntimeException("Failed to write " + field, e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns a {@code (Object)long} handle reading the primitive {@code field}.
+     */
+    private static MethodHandle getBitsHandleFor(final Field field) {
+        final Class<?> type = field.getType();
+        try {
+            field.setAccessible(true);
+            MethodHandle handle = LOOKUP.unreflectGetter(field);
+            if (type == float.class) {
+                handle = MethodHandles.filterReturnValue(handle, LOOKUP.findStatic(Float.class, "floatToRawIntBits",
+                        MethodType.methodType(int.class, float.class)));
+            } else if (type == double.class) {
+                handle = MethodHandles.filterReturnValue(handle, LOOKUP.findStatic(Double.class,
+                        "doubleToRawLongBits", MethodType.methodType(long.class, double.class)));
+            }
+            // Widens integral types and char, turns boolean into 0 or 1
+            return MethodHandles.explicitCastArguments(handle, GET_BITS_TYPE);
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create a getter for " + field, e);
+        }
+    }
+
+    /**
+     * Returns an {@code (Object, long)void} handle writing the primitive {@code field}, through its setter if it
+     * has one.
+     */
+    private static MethodHandle setBitsHandleFor(final Field field) {
+        final Class<?> type = field.getType();
+        try {
+            final Method method = findMethod(field.getDeclaringClass(), "set" + capitalize(field.getName()), type);
+            MethodHandle handle;
+            if (method != null) {
+                handle = LOOKUP.unreflect(method);
+            } else {
+                field.setAccessible(true);
+                handle = LOOKUP.unreflectSetter(field);
+            }
+            if (type == float.class) {
+                handle = MethodHandles.filterArguments(handle, 1, LOOKUP.findStatic(Float.class, "intBitsToFloat",
+                        MethodType.methodType(float.class, int.class)));
+            } else if (type == double.class) {
+                handle = MethodHandles.filterArguments(handle, 1, LOOKUP.findStatic(Double.class, "longBitsToDouble",
+                        MethodType.methodType(double.class, long.class)));
+            }
+            // Narrows to integral types and char, tests the lowest bit for boolean
+            return MethodHandles.explicitCastArguments(handle, SET_BITS_TYPE);
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create a setter for " + field, e);
+        }
+    }
+
+    private static Function<Object, Object> getterFor(final Field field) {
+        try {
+            field.setAccessible(true);
+            final MethodHandle handle = LOOKUP.unreflectGetter(field).asType(GETTER_TYPE);
+            return instance -> {
+                try {
+                    return (Object) handle.invokeExact(instance);
+                } catch (final RuntimeException | Error e) {
+                    throw e;
+                } catch (final Throwable e) {
+                    throw new RuntimeException("Failed to read " + field, e);
+                }
+            };
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create a getter for " + field, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setterFor(final Field field) {
+        final Class<?> type = field.getDeclaringClass();
+        try {
+            final Method method = findMethod(type, "set" + capitalize(field.getName()), field.getType());
+            final MethodHandle setter;
+            if (method != null) {
+                setter = LOOKUP.unreflect(method);
+                final BiConsumer<Object, Object> consumer = (BiConsumer<Object, Object>) lambda(BiConsumer.class,
+                        "accept", SETTER_TYPE, setter, setter.type().changeParameterType(1, wrap(field.getType())));
+                if (consumer != null) {
+                    return consumer;
+                }
+            } else {
+                field.setAccessible(true);
+                setter = LOOKUP.unreflectSetter(field);
+            }
+
+            final MethodHandle handle = setter.asType(SETTER_TYPE);
+            return (instance, value) -> {
+                try {
+                    handle.invokeExact(instance, value);
+                } catch (final RuntimeException | Error e) {
+                    throw e;
+                } catch (final Throwable e) {
+                    throw new RuntimeException("Failed to write " + field, e);
+                }
+            };
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create a setter for " + field, e);
+        }
+    }
+
+    /**
+     * Spins a lambda implementing {@code interfaceType} which calls the direct method {@code handle}. Primitives
+     * are boxed and unboxed as given by {@code instantiatedType}. Returns {@code null} if that isn't possible with
+     * this library's lookup, so the caller falls back to invoking {@code handle}.
+     */
+    private static Object lambda(final Class<?> interfaceType, final String methodName, final MethodType erasedType,
+                                 final MethodHandle handle, final MethodType instantiatedType) {
+        // The lambda refers to the classes by name, which might resolve to other classes or none at all here
+        if (!isVisible(handle.type()) || !isVisible(instantiatedType)) {
+            return null;
+        }
+        try {
+            final CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, methodName,
+                    MethodType.methodType(interfaceType), erasedType, handle, instantiatedType);
+            return callSite.getTarget().invoke();
+        } catch (final LambdaConversionException | LinkageError e) {
+            return null;
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable e) {
+            throw new IllegalStateException("Failed to bind " + handle, e);
+        }
+    }
+
+    /**
+     * Returns the public, non-static method {@code name} of a public {@code type}, or {@code null}.
+     */
+    private static Method findMethod(final Class<?> type, final String name, final Class<?>... parameterTypes) {
+        if (!isPublic(type)) {
+            return null;
+        }
+        try {
+            final Method method = type.getMethod(name, parameterTypes);
+            return Modifier.isStatic(method.getModifiers()) || !isPublic(method.getDeclaringClass()) ? null : method;
+        } catch (final NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether all classes in {@code type} resolve to themselves from this library's class loader.
+     */
+    private static boolean isVisible(final MethodType type) {
+        if (!isVisible(type.returnType())) {
+            return false;
+        }
+        for (final Class<?> parameterType : type.parameterArray()) {
+            if (!isVisible(parameterType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVisible(final Class<?> type) {
+        Class<?> elementType = type;
+        while (elementType.isArray()) {
+            elementType = elementType.getComponentType();
+        }
+        if (elementType.isPrimitive()) {
+            return true;
+        }
+        try {
+            return Class.forName(elementType.getName(), false, RuntimeAccessors.class.getClassLoader()) == elementType;
+        } catch (final ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static boolean isPublic(final Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getEnclosingClass()) {
+            if (!Modifier.isPublic(current.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Class<?> wrap(final Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    private static String capitalize(final String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+}
@@ -0,0 +1,17 @@
+package core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The constraint behind violations of URL parameters with a malformed percent-escape, as returned by
+ * {@code violation.getConstraintDescriptor().getAnnotation()}. Every value must be properly URL encoded if URL
+ * encoding is enabled, so this is never put on a field and can't be.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({})
+public @interface UrlEncoded {
+}
@@ -0,0 +1,85 @@
+package core;
+
+import org.hibernate.validator.HibernateValidator;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+/**
+ * Process-wide {@link ValidatorFactory} shared by all {@link Vurlp} instances which aren't given a
+ * {@link Validator} of their own. Bootstrapping Bean Validation is expensive, so the factory is only built on first
+ * use and then reused. The same goes for the fail-fast factory, which is only built if fail-fast mode is used.
+ */
+public final class ValidatorRegistry {
+
+    private static volatile ValidatorFactory factory;
+    private static volatile Validator validator;
+    private static volatile ValidatorFactory failFastFactory;
+    private static volatile Validator failFastValidator;
+
+    private ValidatorRegistry() {
+    }
+
+    /**
+     * Returns the shared {@link Validator}, bootstrapping the default {@link ValidatorFactory} if necessary.
+     *
+     * @return the shared validator, never null
+     */
+    public static Validator getValidator() {
+        final Validator sharedValidator = validator;
+        if (sharedValidator != null) {
+            return sharedValidator;
+        }
+        synchronized (ValidatorRegistry.class) {
+            if (validator == null) {
+                factory = Validation.buildDefaultValidatorFactory();
+                validator = factory.getValidator();
+            }
+            return validator;
+        }
+    }
+
+    /**
+     * Returns the shared {@link Validator} which stops at the first violation, bootstrapping a Hibernate Validator
+     * factory with fail-fast mode if necessary.
+     *
+     * @return the shared fail-fast validator, never null
+     */
+    public static Validator getFailFastValidator() {
+        final Validator sharedValidator = failFastValidator;
+        if (sharedValidator != null) {
+            return sharedValidator;
+        }
+        synchronized (ValidatorRegistry.class) {
+            if (failFastValidator == null) {
+                failFastFactory = Validation.byProvider(HibernateValidator.class)
+                        .configure()
+                        .failFast(true)
+                        .buildValidatorFactory();
+                failFastValidator = failFastFactory.getValidator();
+            }
+            return failFastValidator;
+        }
+    }
+
+    /**
+     * Closes the shared {@link ValidatorFactory}s, e.g. on application shutdown. {@link Vurlp} instances created
+     * before must not be used afterwards and are dropped from {@link Vurlp#forClass(Class)}, the next call to
+     * {@link #getValidator()} bootstraps a new factory.
+     */
+    public static synchronized void close() {
+        Vurlp.clearRegistry();
+        if (factory != null) {
+            factory.close();
+            factory = null;
+            validator = null;
+        }
+        if (failFastFactory != null) {
+            failFastFactory.close();
+            failFastFactory = null;
+            failFastValidator = null;
+        }
+    }
+
+}
@@ -1,97 +1,511 @@
 package core;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
 
 import javax.validation.ConstraintViolation;
-import javax.validation.Validation;
 import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
-import java.io.UnsupportedEncodingException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
-import java.net.URLDecoder;
-import java.net.URLEncoder;
-import java.util.HashMap;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Maps URL parameters to validated {@code T}s and back.
+ * <p>
+ * Instances are immutable and thread-safe, one instance is meant to be shared by all request threads, see
+ * {@link #forClass(Class)}. The {@link Gson}, the {@link Validator} and the compiled binding plan are only ever
+ * read. Scratch buffers for tokenizing and writing queries are kept per thread and reused, so concurrent calls
+ * never contend for them. Maps passed to {@link #fromParams(Map)} are only read, they may be shared or read-only.
+ *
+ * @param <T> the class representing the URL parameters
+ */
 public class Vurlp<T> {
 
+    private static final Type mapStringStringType = new TypeToken<Map<String, String>>() {
+    }.getType();
+    private static final ConcurrentMap<RegistryKey, Vurlp<?>> registry = new ConcurrentHashMap<>();
+    /**
+     * Scratch buffers which grew beyond this, e.g. for a huge query, aren't kept for the next call.
+     */
+    private static final int MAX_RETAINED_CHARS = 8192;
+    /**
+     * Results of writing a query of up to this many chars or bytes, created once when first needed.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final VurlpOptional<Integer>[] WRITTEN = new VurlpOptional[1024];
+
     private final Class<T> clazz;
     private final Gson gson;
     private final boolean shouldUseUrlEncoding;
-    private final ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-    private final Validator validator = this.factory.getValidator();
-    private final Type mapStringStringType = new TypeToken<Map<String, String>>() {
-    }.getType();
-    private final Pattern queryPrefixPattern = Pattern.compile("^\\?");
+    private final Validator validator;
+    private final BindingPlan<T> bindingPlan;
+    private final ParameterChecks<T> parameterChecks;
+    private final ThreadLocal<ParameterCollector> collectors = new ThreadLocal<>();
+    private final ThreadLocal<StringBuilder> outputs = new ThreadLocal<>();
 
     public Vurlp(final Class<T> clazz) {
-        this.clazz = clazz;
-        this.shouldUseUrlEncoding = true;
-        this.gson = new Gson();
+        this(clazz, true);
     }
 
     public Vurlp(final Class<T> clazz, final boolean shouldUseUrlEncoding) {
+        this(clazz, ValidatorRegistry.getValidator(), shouldUseUrlEncoding);
+    }
+
+    /**
+     * With {@code failFast} enabled, validation stops at the first violation and only reports that one. This
+     * saves the work of collecting every reason for requests which only need to be rejected.
+     */
+    public Vurlp(final Class<T> clazz, final boolean shouldUseUrlEncoding, final boolean failFast) {
+        this(clazz, failFast ? ValidatorRegistry.getFailFastValidator() : ValidatorRegistry.getValidator(),
+                shouldUseUrlEncoding, failFast);
+    }
+
+    public Vurlp(final Class<T> clazz, final Validator validator) {
+        this(clazz, validator, true);
+    }
+
+    /**
+     * The factory is only used to obtain a {@link Validator}, closing it remains up to the caller.
+     */
+    public Vurlp(final Class<T> clazz, final ValidatorFactory validatorFactory) {
+        this(clazz, validatorFactory.getValidator(), true);
+    }
+
+    public Vurlp(final Class<T> clazz, final Validator validator, final boolean shouldUseUrlEncoding) {
+        this(clazz, validator, shouldUseUrlEncoding, false);
+    }
+
+    private Vurlp(final Class<T> clazz, final Validator validator, final boolean shouldUseUrlEncoding,
+                  final boolean failFast) {
         this.clazz = clazz;
         this.shouldUseUrlEncoding = shouldUseUrlEncoding;
         this.gson = new Gson();
+        this.validator = validator;
+        this.bindingPlan = BindingPlan.of(clazz, this.gson);
+        this.parameterChecks = this.bindingPlan != null
+                ? ParameterChecks.of(this.bindingPlan, validator, failFast)
+                : null;
     }
 
     public Vurlp(final Class<T> clazz, final Gson gson, final boolean shouldUseUrlEncoding) {
+        this(clazz, gson, ValidatorRegistry.getValidator(), shouldUseUrlEncoding);
+    }
+
+    /**
+     * A custom {@link Gson} may carry type adapters for any field type, so parameters are always mapped through
+     * Gson itself instead of a precompiled {@link BindingPlan}.
+     */
+    public Vurlp(final Class<T> clazz, final Gson gson, final Validator validator, final boolean shouldUseUrlEncoding) {
         this.clazz = clazz;
         this.shouldUseUrlEncoding = shouldUseUrlEncoding;
         this.gson = gson;
+        this.validator = validator;
+        this.bindingPlan = null;
+        this.parameterChecks = null;
+    }
+
+    /**
+     * Returns the shared, fully prepared instance for {@code clazz} with URL encoding enabled. Instances are
+     * created once per target class and configuration and then cached for the lifetime of the application.
+     *
+     * @param clazz the class representing the URL parameters
+     * @param <T>   the type of the class
+     * @return the cached instance
+     */
+    public static <T> Vurlp<T> forClass(final Class<T> clazz) {
+        return forClass(clazz, true);
+    }
+
+    /**
+     * Like {@link #forClass(Class)}, but with URL encoding enabled or disabled.
+     */
+    public static <T> Vurlp<T> forClass(final Class<T> clazz, final boolean shouldUseUrlEncoding) {
+        return forClass(clazz, shouldUseUrlEncoding, false);
+    }
+
+    /**
+     * Like {@link #forClass(Class, boolean)}, but with fail-fast validation enabled or disabled, see
+     * {@link #Vurlp(Class, boolean, boolean)}.
+     */
+    public static <T> Vurlp<T> forClass(final Class<T> clazz, final boolean shouldUseUrlEncoding,
+                                        final boolean failFast) {
+        return register(new RegistryKey(clazz, null, shouldUseUrlEncoding, failFast),
+                () -> new Vurlp<>(clazz, shouldUseUrlEncoding, failFast));
+    }
+
+    /**
+     * Like {@link #forClass(Class, boolean)}, but with a custom {@link Gson}. Instances are cached per
+     * {@code Gson} instance, so it should be created once and reused as well. Pass {@code null} for the default.
+     */
+    public static <T> Vurlp<T> forClass(final Class<T> clazz, final Gson gson, final boolean shouldUseUrlEncoding) {
+        if (gson == null) {
+            return forClass(clazz, shouldUseUrlEncoding);
+        }
+        return register(new RegistryKey(clazz, gson, shouldUseUrlEncoding, false),
+                () -> new Vurlp<>(clazz, gson, shouldUseUrlEncoding));
+    }
+
+    /**
+     * Prepares the default instances of all given classes at startup, so that the first request doesn't pay for
+     * reflection, Gson type adapters and Bean Validation metadata.
+     *
+     * @param classes the classes representing URL parameters
+     */
+    public static void warmUp(final Class<?>... classes) {
+        for (final Class<?> clazz : classes) {
+            forClass(clazz);
+        }
     }
 
+    private static <T> Vurlp<T> register(final RegistryKey key, final Supplier<Vurlp<T>> factory) {
+        @SuppressWarnings("unchecked") final Vurlp<T> vurlp = (Vurlp<T>) registry.computeIfAbsent(key, k -> {
+            final Vurlp<T> created = factory.get();
+            created.warmUp();
+            return created;
+        });
+        return vurlp;
+    }
+
+    static void clearRegistry() {
+        registry.clear();
+    }
+
+    /**
+     * Maps parameters which are split into names and values, but not yet decoded. The map is only read, so it may
+     * be shared or read-only, e.g. a {@link Collections#unmodifiableMap(Map)} view. Nothing is copied, values are
+     * decoded into per-thread scratch buffers.
+     */
     public VurlpOptional<T> fromParams(final Map<String, String> urlParamsAsMap) {
+        final ParameterCollector collector = this.acquireCollector();
+        try {
+            if (this.bindingPlan != null) {
+                // Multi-valued fields are split before decoding, so the plan works on the raw values
+                final BindingPlan.Values values = this.bindingPlan.newValues();
+                for (final Entry<String, String> entry : urlParamsAsMap.entrySet()) {
+                    try {
+                        this.bindingPlan.convert(values, entry.getKey(), entry.getValue(), this.shouldUseUrlEncoding,
+                                collector.buffer, collector.keyBuffer);
+                    } catch (final PercentCodec.MalformedEscapeException e) {
+                        return VurlpOptional.invalid(this.malformed(entry.getKey(), entry.getValue(), e));
+                    }
+                }
+                values.complete();
+                return this.toOptional(this.bind(values));
+            }
+            final JsonObject tree = new JsonObject();
+            for (final Entry<String, String> entry : urlParamsAsMap.entrySet()) {
+                try {
+                    this.put(tree, entry.getKey(), entry.getValue(), collector.buffer);
+                } catch (final PercentCodec.MalformedEscapeException e) {
+                    return VurlpOptional.invalid(this.malformed(entry.getKey(), entry.getValue(), e));
+                }
+            }
+            return this.toOptional(this.bind(tree));
+        } finally {
+            this.releaseCollector(collector);
+        }
+    }
 
-        if (this.shouldUseUrlEncoding) {
-            for (Entry<String, String> entry : urlParamsAsMap.entrySet()) {
-                if(entry.getValue() == null || entry.getValue().equals("")) {
-                    urlParamsAsMap.put(entry.getKey(), null);
-                } else {
-                    urlParamsAsMap.put(entry.getKey(), this.decode(entry.getValue()));
+    /**
+     * Like {@link #fromParams(Map)}, for several values per name as in {@code ServletRequest.getParameterMap()}.
+     * Multi-valued fields get all values, single fields the last one, just like with repeated parameters in a query
+     * string. Servlet containers have decoded the values already, so they are meant for an instance with URL
+     * encoding disabled.
+     */
+    public VurlpOptional<T> fromParameterMap(final Map<String, String[]> urlParamsAsMap) {
+        final ParameterCollector collector = this.acquireCollector();
+        try {
+            if (this.bindingPlan != null) {
+                final BindingPlan.Values values = this.bindingPlan.newValues();
+                for (final Entry<String, String[]> entry : urlParamsAsMap.entrySet()) {
+                    if (entry.getValue() == null) {
+                        continue;
+                    }
+                    // In order, so multi-valued fields get all values and single fields the last one
+                    for (final String value : entry.getValue()) {
+                        try {
+                            this.bindingPlan.convert(values, entry.getKey(), value, this.shouldUseUrlEncoding,
+                                    collector.buffer, collector.keyBuffer);
+                        } catch (final PercentCodec.MalformedEscapeException e) {
+                            return VurlpOptional.invalid(this.malformed(entry.getKey(), value, e));
+                        }
+                    }
+                }
+                values.complete();
+                return this.toOptional(this.bind(values));
+            }
+            final JsonObject tree = new JsonObject();
+            for (final Entry<String, String[]> entry : urlParamsAsMap.entrySet()) {
+                final String[] values = entry.getValue();
+                final String value = values == null || values.length == 0 ? null : values[values.length - 1];
+                try {
+                    this.put(tree, entry.getKey(), value, collector.buffer);
+                } catch (final PercentCodec.MalformedEscapeException e) {
+                    return VurlpOptional.invalid(this.malformed(entry.getKey(), value, e));
                 }
             }
+            return this.toOptional(this.bind(tree));
+        } finally {
+            this.releaseCollector(collector);
         }
-        final T mappedObject = this.gson.fromJson(this.gson.toJsonTree(urlParamsAsMap), this.clazz);
+    }
 
-        final Set<ConstraintViolation<T>> violations = this.validator.validate(mappedObject);
+    public VurlpOptional<T> fromParams(final String urlParams) {
+        return this.fromParams((CharSequence) urlParams);
+    }
+
+    /**
+     * Like {@link #fromParams(String)}, but parses any {@link CharSequence} in place, e.g. a {@link CharBuffer} or a
+     * view of a network buffer. Only the values of bound parameters are copied. The sequence must not change
+     * while it is parsed.
+     */
+    public VurlpOptional<T> fromParams(final CharSequence urlParams) {
+        final ParameterCollector collector = this.acquireCollector();
+        try {
+            return this.toOptional(this.parse(urlParams, collector));
+        } finally {
+            this.releaseCollector(collector);
+        }
+    }
+
+    /**
+     * Like {@link #fromParams(CharSequence)}, for the query in {@code chars[offset, offset + length)}.
+     */
+    public VurlpOptional<T> fromParams(final char[] chars, final int offset, final int length) {
+        return this.fromParams(CharBuffer.wrap(chars, offset, length));
+    }
+
+    /**
+     * Like {@link #fromParams(CharSequence)}, for the query in the bytes from {@code position} to {@code limit} of
+     * {@code bytes}, which stay unchanged. A query of plain ASCII in an ASCII-compatible {@code charset}, which
+     * is what an encoded query is, is parsed and percent-decoded straight from the bytes. Anything else is decoded
+     * with {@code charset} first. Escapes are always decoded as UTF-8, like in all other methods.
+     */
+    public VurlpOptional<T> fromParams(final ByteBuffer bytes, final Charset charset) {
+        return this.fromParams(AsciiByteSequence.of(bytes, charset));
+    }
+
+    /**
+     * Like {@link #fromParams(CharSequence)} for each of {@code queries}, with the same scratch buffers for all of
+     * them. The results are kept in columns instead of one {@code VurlpOptional} each. Exceptions, e.g. for values
+     * which can't be converted, end the batch just like they end {@code fromParams}.
+     */
+    public BatchResult<T> fromParamsBatch(final List<? extends CharSequence> queries) {
+        return this.fromParamsBatch(queries, null);
+    }
+
+    /**
+     * Like {@link #fromParamsBatch(List)}, but splits the queries across the common {@link ForkJoinPool} if
+     * {@code parallel} is set.
+     */
+    public BatchResult<T> fromParamsBatch(final List<? extends CharSequence> queries, final boolean parallel) {
+        return this.fromParamsBatch(queries, parallel ? ForkJoinPool.commonPool() : null);
+    }
+
+    /**
+     * Like {@link #fromParamsBatch(List)}, but splits the queries across {@code pool} unless it is {@code null}.
+     * Each worker parses its share with its own scratch buffers. The list must allow fast random access.
+     */
+    public BatchResult<T> fromParamsBatch(final List<? extends CharSequence> queries, final ForkJoinPool pool) {
+        final Object[] results = new Object[queries.size()];
+        if (pool == null) {
+            this.parseBatch(queries, 0, results.length, results);
+        } else {
+            pool.invoke(new BatchTask(queries, 0, results.length, results));
+        }
+        return this.toBatchResult(results, results.length);
+    }
+
+    /**
+     * Like {@link #fromParamsBatch(List)}, for the queries of a stream in encounter order. A parallel stream is
+     * collected first and then split across the common {@link ForkJoinPool}, a sequential one is parsed as it goes.
+     */
+    public BatchResult<T> fromParamsBatch(final Stream<? extends CharSequence> queries) {
+        if (queries.isParallel()) {
+            return this.fromParamsBatch(queries.collect(Collectors.toList()), ForkJoinPool.commonPool());
+        }
+        final Iterator<? extends CharSequence> iterator = queries.iterator();
+        Object[] results = new Object[64];
+        int size = 0;
+        try (BatchParser parser = this.batchParser()) {
+            while (iterator.hasNext()) {
+                if (size == results.length) {
+                    results = Arrays.copyOf(results, size * 2);
+                }
+                results[size++] = parser.parse(iterator.next());
+            }
+        }
+        return this.toBatchResult(results, size);
+    }
+
+    public VurlpOptional<String> toParams(final T object, final boolean prependQuestionMark) {
+        final Set<ConstraintViolation<T>> violations = this.validator.validate(object);
         if (!violations.isEmpty()) {
             return VurlpOptional.invalid(violations);
-        } else {
-            return VurlpOptional.of(mappedObject);
         }
+        final StringBuilder query = this.write(object, prependQuestionMark);
+        try {
+            return VurlpOptional.of(query.toString());
+        } finally {
+            this.releaseOutput(query);
+        }
+    }
+
+    public VurlpOptional<String> toParams(final T object) {
+        return this.toParams(object, true);
     }
 
-    public VurlpOptional<T> fromParams(String urlParams) {
-        urlParams = this.queryPrefixPattern.matcher(urlParams).replaceFirst("");
-        Map<String, String> map = new HashMap<>();
-        for (String param : urlParams.split("&")) {
-            String[] split = param.split("=", 2);
-            map.put(split[0], split.length > 1 ? split[1] : null);
+    /**
+     * Like {@link #toParams(Object, boolean)}, but appends the query to {@code out} instead of returning it, so no
+     * {@code String} is created. A {@link StringBuilder} gets the query written straight into it, any other
+     * {@code Appendable} gets it in one piece from this thread's scratch builder. Either way nothing is appended
+     * unless {@code object} is valid. Returns the number of chars written.
+     *
+     * @throws UncheckedIOException if {@code out} throws an {@link IOException}
+     */
+    public VurlpOptional<Integer> toParams(final T object, final boolean prependQuestionMark, final Appendable out) {
+        final Set<ConstraintViolation<T>> violations = this.validator.validate(object);
+        if (!violations.isEmpty()) {
+            return VurlpOptional.invalid(violations);
+        }
+        if (out instanceof StringBuilder) {
+            final StringBuilder builder = (StringBuilder) out;
+            final int start = builder.length();
+            boolean written = false;
+            try {
+                this.write(object, prependQuestionMark, builder);
+                written = true;
+            } finally {
+                if (!written) {
+                    builder.setLength(start);
+                }
+            }
+            return written(builder.length() - start);
         }
 
-        return this.fromParams(map);
+        final StringBuilder query = this.write(object, prependQuestionMark);
+        try {
+            out.append(query);
+            return written(query.length());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            this.releaseOutput(query);
+        }
     }
 
-    public VurlpOptional<String> toParams(final T object, final boolean prependQuestionMark) {
+    public VurlpOptional<Integer> toParams(final T object, final Appendable out) {
+        return this.toParams(object, true, out);
+    }
 
+    /**
+     * Like {@link #toParams(Object, boolean, Appendable)}, but puts the query into {@code out} as UTF-8 bytes,
+     * which for an encoded query are just its ASCII chars. The query is written to this thread's scratch builder
+     * and its exact size computed before anything is put, so {@code out} either takes the whole query or is left
+     * unchanged. Returns the number of bytes written.
+     *
+     * @throws BufferOverflowException if {@code out} has less room than the query needs
+     */
+    public VurlpOptional<Integer> toParams(final T object, final boolean prependQuestionMark, final ByteBuffer out) {
         final Set<ConstraintViolation<T>> violations = this.validator.validate(object);
         if (!violations.isEmpty()) {
             return VurlpOptional.invalid(violations);
         }
+        final StringBuilder query = this.write(object, prependQuestionMark);
+        try {
+            final int size = PercentCodec.utf8Length(query);
+            if (size > out.remaining()) {
+                throw new BufferOverflowException();
+            }
+            PercentCodec.writeUtf8(query, out);
+            return written(size);
+        } finally {
+            this.releaseOutput(query);
+        }
+    }
+
+    public VurlpOptional<Integer> toParams(final T object, final ByteBuffer out) {
+        return this.toParams(object, true, out);
+    }
+
+    /**
+     * Returns the result for {@code count} chars or bytes written, shared for the sizes most queries have.
+     */
+    private static VurlpOptional<Integer> written(final int count) {
+        if (count >= WRITTEN.length) {
+            return VurlpOptional.of(count);
+        }
+        VurlpOptional<Integer> written = WRITTEN[count];
+        if (written == null) {
+            // Racing threads may create it twice, which is harmless as it can't be changed
+            written = VurlpOptional.of(count);
+            WRITTEN[count] = written;
+        }
+        return written;
+    }
 
-        final Map<String, String> map = this.gson.fromJson(this.gson.toJsonTree(object), this.mapStringStringType);
-        final StringBuilder stringBuilder = new StringBuilder();
+    /**
+     * Writes the query for the already validated {@code object} into this thread's scratch builder, which must be
+     * released afterwards.
+     */
+    private StringBuilder write(final T object, final boolean prependQuestionMark) {
+        StringBuilder stringBuilder = this.outputs.get();
+        if (stringBuilder == null) {
+            stringBuilder = new StringBuilder();
+        } else {
+            // Taken until released, so a nested call on this thread gets a builder of its own
+            this.outputs.set(null);
+        }
+        this.write(object, prependQuestionMark, stringBuilder);
+        return stringBuilder;
+    }
 
+    /**
+     * Appends the query for the already validated {@code object} to {@code stringBuilder}.
+     */
+    private void write(final T object, final boolean prependQuestionMark, final StringBuilder stringBuilder) {
         if (prependQuestionMark) {
             stringBuilder.append("?");
         }
 
+        if (this.bindingPlan != null) {
+            this.bindingPlan.write(object, stringBuilder, this.shouldUseUrlEncoding);
+        } else {
+            this.writeViaGson(object, stringBuilder);
+        }
+    }
+
+    private void releaseOutput(final StringBuilder stringBuilder) {
+        if (stringBuilder.capacity() <= MAX_RETAINED_CHARS) {
+            stringBuilder.setLength(0);
+            this.outputs.set(stringBuilder);
+        }
+    }
+
+    private void writeViaGson(final T object, final StringBuilder stringBuilder) {
+        final Map<String, String> map = this.gson.fromJson(this.gson.toJsonTree(object), mapStringStringType);
+
         int parameterCount = 0;
         for (final Entry<String, String> entry : map.entrySet()) {
             parameterCount++;
@@ -101,7 +515,7 @@ public class Vurlp<T> {
             if(entry.getValue() != null && !entry.getValue().equals("")) {
                 stringBuilder.append("=");
                 if (this.shouldUseUrlEncoding) {
-                    stringBuilder.append(this.encode(entry.getValue()));
+                    PercentCodec.encode(entry.getValue(), stringBuilder);
                 } else {
                     stringBuilder.append(entry.getValue());
                 }
@@ -111,28 +525,441 @@ public class Vurlp<T> {
                 stringBuilder.append("&");
             }
         }
+    }
+
+    /**
+     * Parses, binds and validates one query string with {@code collector}, which is reset afterwards. Returns the
+     * valid {@code T} or the violations, see {@link #toOptional(Object)}.
+     */
+    private Object parse(final CharSequence urlParams, final ParameterCollector collector) {
+        QueryTokenizer.tokenize(urlParams, collector);
+
+        if (collector.malformedValue != null) {
+            return this.malformed(collector.malformedKey, collector.malformedValue, collector.malformedReason,
+                    collector.malformedIndex);
+        }
+        if (this.bindingPlan == null) {
+            return this.bind(collector.tree);
+        }
+        return this.bind(collector.convert(urlParams));
+    }
+
+    /**
+     * Wraps the result of binding, which is either a valid {@code T} or the {@link Set} of its violations. Sets of
+     * violations are never an instance of the target class, so results don't need an {@code Optional} of their own
+     * until they are handed out.
+     */
+    @SuppressWarnings("unchecked")
+    private VurlpOptional<T> toOptional(final Object result) {
+        return this.clazz.isInstance(result)
+                ? VurlpOptional.of((T) result)
+                : VurlpOptional.invalid((Set<ConstraintViolation<T>>) result);
+    }
+
+    /**
+     * Sets the decoded {@code value} in the tree handed to Gson. {@code null} and, with URL encoding, empty values
+     * remove the name, which is what {@code toJsonTree} does with {@code null} map values.
+     */
+    private void put(final JsonObject tree, final String key, final String value, final StringBuilder buffer) {
+        final String name = String.valueOf(key);
+        if (value == null || (this.shouldUseUrlEncoding && value.isEmpty())) {
+            tree.remove(name);
+        } else if (this.shouldUseUrlEncoding) {
+            tree.addProperty(name, PercentCodec.decode(value, 0, value.length(), buffer));
+        } else {
+            tree.addProperty(name, value);
+        }
+    }
+
+    private Object bind(final JsonObject tree) {
+        return this.validate(this.gson.fromJson(tree, this.clazz));
+    }
+
+    private Object bind(final BindingPlan.Values values) {
+        if (this.parameterChecks == null) {
+            return this.validate(this.bindingPlan.instantiate(values));
+        }
+        final Set<ConstraintViolation<T>> rejected = this.parameterChecks.check(values);
+        if (this.parameterChecks.isFinal(rejected)) {
+            return rejected;
+        }
+        final T instance = this.bindingPlan.instantiate(values);
+        final Set<ConstraintViolation<T>> violations = this.parameterChecks.checkAssigned(instance, rejected);
+        return violations != null ? violations : this.validate(instance);
+    }
+
+    private Object validate(final T mappedObject) {
+        final Set<ConstraintViolation<T>> violations = this.validator.validate(mappedObject);
+        return violations.isEmpty() ? mappedObject : violations;
+    }
+
+    /**
+     * Builds everything that would otherwise be built lazily on the first call. The binding plan already exists
+     * at this point, so this covers Bean Validation metadata and Gson's adapter if there is no plan.
+     */
+    private void warmUp() {
+        this.validator.getConstraintsForClass(this.clazz);
+        if (this.bindingPlan == null) {
+            this.gson.getAdapter(this.clazz);
+        }
+    }
+
+    /**
+     * Returns this thread's collector, or a new one if it is taken by a call further up the stack.
+     */
+    private ParameterCollector acquireCollector() {
+        final ParameterCollector collector = this.collectors.get();
+        if (collector == null) {
+            return new ParameterCollector();
+        }
+        this.collectors.set(null);
+        return collector;
+    }
+
+    private void releaseCollector(final ParameterCollector collector) {
+        if (collector.reset()) {
+            this.collectors.set(collector);
+        }
+    }
+
+    private void parseBatch(final List<? extends CharSequence> queries, final int from, final int to,
+                            final Object[] results) {
+        try (BatchParser parser = this.batchParser()) {
+            for (int i = from; i < to; i++) {
+                results[i] = parser.parse(queries.get(i));
+            }
+        }
+    }
 
-        return VurlpOptional.of(stringBuilder.toString());
+    /**
+     * Returns a parser for many queries in a row on the calling thread, which must be closed afterwards.
+     */
+    BatchParser batchParser() {
+        return new BatchParser(this.acquireCollector());
     }
 
-    public VurlpOptional<String> toParams(final T object) {
-        return this.toParams(object, true);
+    private BatchResult<T> toBatchResult(final Object[] results, final int size) {
+        final BitSet valid = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if (this.clazz.isInstance(results[i])) {
+                valid.set(i);
+            }
+        }
+        return new BatchResult<>(size == results.length ? results : Arrays.copyOf(results, size), valid);
     }
 
-    private String encode(String value) {
-        try {
-            return URLEncoder.encode(value, "UTF-8");
-        } catch (final UnsupportedEncodingException e) {
-            return URLEncoder.encode(value);
+    private Set<ConstraintViolation<T>> malformed(final String key, final String value, final String reason,
+                                                  final int index) {
+        return Collections.singleton(new ParameterViolation<>(this.clazz, key, value, reason, index));
+    }
+
+    /**
+     * Returns the violation for the malformed escape {@code e} found while decoding all of {@code value}.
+     */
+    private Set<ConstraintViolation<T>> malformed(final String key, final String value,
+                                                  final PercentCodec.MalformedEscapeException e) {
+        return this.malformed(key, value, e.getMessage(), e.getIndex());
+    }
+
+    /**
+     * Collects the parameters of one query string, the first malformed escape stops collecting. Without a binding
+     * plan, values are decoded into {@link #tree} for Gson while tokenizing. With a plan, only the position of each
+     * field's last value (and of all values of multi-valued fields and nested names) is kept, and
+     * {@link #convert(CharSequence)} later parses them straight from the query or, if they have escapes, from the
+     * decoded characters.
+     */
+    private final class ParameterCollector implements QueryTokenizer.Sink {
+
+        private JsonObject tree;
+        private final int[] valueStarts;
+        private final int[] valueEnds;
+        private int[] log;
+        private int logLength;
+        private final StringBuilder buffer = new StringBuilder();
+        private final StringBuilder keyBuffer = new StringBuilder();
+        private String malformedKey;
+        private String malformedValue;
+        private String malformedReason;
+        private int malformedIndex;
+
+        private ParameterCollector() {
+            if (Vurlp.this.bindingPlan == null) {
+                this.tree = new JsonObject();
+                this.valueStarts = null;
+                this.valueEnds = null;
+            } else {
+                final int fieldCount = Vurlp.this.bindingPlan.getFields().length;
+                this.tree = null;
+                this.valueStarts = new int[fieldCount];
+                this.valueEnds = new int[fieldCount];
+                Arrays.fill(this.valueStarts, -1);
+            }
+        }
+
+        /**
+         * Prepares this collector for the next query. Returns {@code false} if it should rather be dropped because
+         * its buffers grew too large.
+         */
+        private boolean reset() {
+            if (this.buffer.capacity() > MAX_RETAINED_CHARS || this.keyBuffer.capacity() > MAX_RETAINED_CHARS
+                    || (this.log != null && this.log.length > MAX_RETAINED_CHARS)) {
+                return false;
+            }
+            if (this.tree != null) {
+                this.tree = new JsonObject();
+            } else {
+                Arrays.fill(this.valueStarts, -1);
+            }
+            this.logLength = 0;
+            this.malformedKey = null;
+            this.malformedValue = null;
+            this.malformedReason = null;
+            this.malformedIndex = 0;
+            return true;
+        }
+
+        @Override
+        public void accept(final CharSequence query, final int keyStart, final int keyEnd, final int valueStart,
+                           final int valueEnd) {
+            if (this.malformedValue != null) {
+                return;
+            }
+            if (Vurlp.this.bindingPlan != null) {
+                this.acceptBound(query, keyStart, keyEnd, valueStart, valueEnd);
+                return;
+            }
+
+            final String key = query.subSequence(keyStart, keyEnd).toString();
+            if (valueStart < 0) {
+                this.tree.remove(key);
+            } else if (!Vurlp.this.shouldUseUrlEncoding) {
+                this.tree.addProperty(key, query.subSequence(valueStart, valueEnd).toString());
+            } else if (valueStart == valueEnd) {
+                this.tree.remove(key);
+            } else {
+                try {
+                    this.tree.addProperty(key, PercentCodec.decode(query, valueStart, valueEnd, this.buffer));
+                } catch (final PercentCodec.MalformedEscapeException e) {
+                    this.malformedKey = key;
+                    this.malformedValue = query.subSequence(valueStart, valueEnd).toString();
+                    this.malformedReason = e.getMessage();
+                    this.malformedIndex = e.getIndex() - valueStart;
+                }
+            }
+        }
+
+        private void acceptBound(final CharSequence query, final int keyStart, final int keyEnd, final int valueStart,
+                                 final int valueEnd) {
+            // Parameters without a matching field are dropped before any substring is made
+            final BindingPlan.FieldBinding binding = Vurlp.this.bindingPlan.find(query, keyStart, keyEnd);
+            final boolean empty = valueStart < 0 || (Vurlp.this.shouldUseUrlEncoding && valueStart == valueEnd);
+            if (binding == null) {
+                if (!empty && KeyPath.isNestedCandidate(query, keyStart, keyEnd)
+                        && Vurlp.this.bindingPlan.resolve(query, keyStart, keyEnd, Vurlp.this.shouldUseUrlEncoding,
+                        this.keyBuffer, null) != null
+                        && this.isWellFormed(query, null, keyStart, keyEnd, valueStart, valueEnd)) {
+                    this.log(-1, keyStart, keyEnd, valueStart, valueEnd);
+                }
+                return;
+            }
+            if (!binding.isLeaf()) {
+                return;
+            }
+
+            final int index = binding.index;
+            if (empty) {
+                if (binding.multi == null) {
+                    this.valueStarts[index] = -1;
+                }
+                return;
+            }
+            if (!this.isWellFormed(query, binding, keyStart, keyEnd, valueStart, valueEnd)) {
+                return;
+            }
+            if (binding.multi == null) {
+                this.valueStarts[index] = valueStart;
+                this.valueEnds[index] = valueEnd;
+                return;
+            }
+            this.log(index, keyStart, keyEnd, valueStart, valueEnd);
         }
+
+        private boolean isWellFormed(final CharSequence query, final BindingPlan.FieldBinding binding,
+                                     final int keyStart, final int keyEnd, final int valueStart, final int valueEnd) {
+            if (!Vurlp.this.shouldUseUrlEncoding) {
+                return true;
+            }
+            try {
+                PercentCodec.needsDecoding(query, valueStart, valueEnd);
+                return true;
+            } catch (final PercentCodec.MalformedEscapeException e) {
+                this.malformedKey = binding != null ? binding.name : query.subSequence(keyStart, keyEnd).toString();
+                this.malformedValue = query.subSequence(valueStart, valueEnd).toString();
+                this.malformedReason = e.getMessage();
+                this.malformedIndex = e.getIndex() - valueStart;
+                return false;
+            }
+        }
+
+        /**
+         * Keeps a value of a multi-valued field, given by its {@code index}, or of a nested name, given by an
+         * {@code index} of -1, in the order of the query.
+         */
+        private void log(final int index, final int keyStart, final int keyEnd, final int valueStart,
+                         final int valueEnd) {
+            if (this.log == null) {
+                this.log = new int[40];
+            } else if (this.logLength == this.log.length) {
+                this.log = Arrays.copyOf(this.log, this.logLength * 2);
+            }
+            this.log[this.logLength++] = index;
+            this.log[this.logLength++] = keyStart;
+            this.log[this.logLength++] = keyEnd;
+            this.log[this.logLength++] = valueStart;
+            this.log[this.logLength++] = valueEnd;
+        }
+
+        private BindingPlan.Values convert(final CharSequence query) {
+            final BindingPlan<T> plan = Vurlp.this.bindingPlan;
+            final boolean shouldDecode = Vurlp.this.shouldUseUrlEncoding;
+            final BindingPlan.FieldBinding[] fields = plan.getFields();
+            final BindingPlan.Values values = plan.newValues();
+            for (final BindingPlan.FieldBinding binding : fields) {
+                final int index = binding.index;
+                if (this.valueStarts[index] >= 0) {
+                    values.convert(binding, query, this.valueStarts[index], this.valueEnds[index], shouldDecode,
+                            this.buffer);
+                }
+            }
+            for (int i = 0; i < this.logLength; i += 5) {
+                final int index = this.log[i];
+                if (index >= 0) {
+                    values.convert(fields[index], query, this.log[i + 3], this.log[i + 4], shouldDecode, this.buffer);
+                } else {
+                    plan.resolve(query, this.log[i + 1], this.log[i + 2], shouldDecode, this.keyBuffer, values)
+                            .convert(query, this.log[i + 3], this.log[i + 4], shouldDecode, this.buffer);
+                }
+            }
+            values.complete();
+            return values;
+        }
+
     }
 
-    private String decode(String value) {
-        try {
-            return URLDecoder.decode(value, "UTF-8");
-        } catch (final UnsupportedEncodingException e) {
-            return URLDecoder.decode(value);
+    /**
+     * Parses queries one after the other with the same collector, for batches and the readers in this package. It
+     * belongs to the thread which created it, like the collector it holds.
+     */
+    final class BatchParser implements AutoCloseable {
+
+        private ParameterCollector collector;
+
+        private BatchParser(final ParameterCollector collector) {
+            this.collector = collector;
         }
+
+        /**
+         * Returns the valid {@code T} or the set of its violations. The collector is reset even if this throws, so
+         * the parser can go on with the next query.
+         */
+        Object parse(final CharSequence query) {
+            try {
+                return Vurlp.this.parse(query, this.collector);
+            } finally {
+                if (!this.collector.reset()) {
+                    this.collector = new ParameterCollector();
+                }
+            }
+        }
+
+        boolean isValid(final Object result) {
+            return Vurlp.this.clazz.isInstance(result);
+        }
+
+        boolean shouldDecode() {
+            return Vurlp.this.shouldUseUrlEncoding;
+        }
+
+        @Override
+        public void close() {
+            Vurlp.this.releaseCollector(this.collector);
+        }
+
+    }
+
+    /**
+     * Parses a range of a batch, splitting it in halves down to {@link #THRESHOLD} queries.
+     */
+    @SuppressWarnings("serial")
+    private final class BatchTask extends RecursiveAction {
+
+        private static final int THRESHOLD = 512;
+
+        private final List<? extends CharSequence> queries;
+        private final int from;
+        private final int to;
+        private final Object[] results;
+
+        private BatchTask(final List<? extends CharSequence> queries, final int from, final int to,
+                          final Object[] results) {
+            this.queries = queries;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= THRESHOLD) {
+                Vurlp.this.parseBatch(this.queries, this.from, this.to, this.results);
+                return;
+            }
+            final int middle = (this.from + this.to) >>> 1;
+            invokeAll(new BatchTask(this.queries, this.from, middle, this.results),
+                    new BatchTask(this.queries, middle, this.to, this.results));
+        }
+
+    }
+
+    private static final class RegistryKey {
+
+        private final Class<?> clazz;
+        private final Gson gson;
+        private final boolean shouldUseUrlEncoding;
+        private final boolean failFast;
+
+        private RegistryKey(final Class<?> clazz, final Gson gson, final boolean shouldUseUrlEncoding,
+                            final boolean failFast) {
+            this.clazz = clazz;
+            this.gson = gson;
+            this.shouldUseUrlEncoding = shouldUseUrlEncoding;
+            this.failFast = failFast;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof RegistryKey)) {
+                return false;
+            }
+            final RegistryKey other = (RegistryKey) obj;
+            return this.clazz == other.clazz
+                    && this.gson == other.gson
+                    && this.shouldUseUrlEncoding == other.shouldUseUrlEncoding
+                    && this.failFast == other.failFast;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = this.clazz.hashCode();
+            result = 31 * result + System.identityHashCode(this.gson);
+            result = 31 * result + (this.shouldUseUrlEncoding ? 1 : 0);
+            result = 31 * result + (this.failFast ? 1 : 0);
+            return result;
+        }
+
     }
 
 }
@@ -0,0 +1,24 @@
+package core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class representing URL parameters for {@link BinderProcessor}, which generates a reflection-free
+ * {@link Binder} for it at compile time. {@link Vurlp} picks the generated binder up automatically and uses it to
+ * create instances, access fields and parse and format the values of fields of the types listed in {@link Binder}.
+ * Splitting the query, decoding and encoding, nested and map fields and fields of other types are handled by the
+ * shared code.
+ * <p>
+ * The class needs a non-private no-arg constructor, and every bound field must either be non-private or have a
+ * non-private getter and setter. Such a getter should return the field unchanged, as Gson serializes the field
+ * itself.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface VurlpBindable {
+}
@@ -1,12 +1,13 @@
 package core;
 
 import javax.validation.ConstraintViolation;
-import java.util.HashSet;
-import java.util.Map.Entry;
+import java.util.Collections;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 public final class VurlpOptional<T> {
@@ -20,12 +21,18 @@ public final class VurlpOptional<T> {
 
     private VurlpOptional(final T value) {
         this.value = Objects.requireNonNull(value);
-        this.violations = new HashSet<>();
+        this.violations = Collections.emptySet();
     }
 
     private VurlpOptional(final Set<ConstraintViolation<?>> violations) {
         this.value = null;
-        this.violations = violations;
+        if (violations.isEmpty()) {
+            this.violations = Collections.emptySet();
+        } else if (violations.size() == 1) {
+            this.violations = Collections.singleton(violations.iterator().next());
+        } else {
+            this.violations = Collections.unmodifiableSet(violations);
+        }
     }
 
     /**
@@ -94,6 +101,74 @@ public final class VurlpOptional<T> {
             consumer.accept(this.value);
     }
 
+    /**
+     * If a value is present, invoke {@code action} with the value, otherwise invoke {@code invalidAction} with the
+     * violations.
+     *
+     * @param action        block to be executed if a value is present
+     * @param invalidAction block to be executed with the violations if no value is present
+     */
+    public void ifValidOrElse(final Consumer<? super T> action,
+                              final Consumer<? super Set<ConstraintViolation<?>>> invalidAction) {
+        if (this.value != null) {
+            action.accept(this.value);
+        } else {
+            invalidAction.accept(this.violations);
+        }
+    }
+
+    /**
+     * If a value is present, returns an {@code Optional} with the result of applying {@code mapper} to it.
+     * Otherwise returns this invalid {@code Optional} with its violations, without creating a new one.
+     *
+     * @param mapper a mapping function to apply to the value, if present
+     * @param <U>    the type of the result of the mapping function
+     * @return an {@code Optional} with the mapped value, or this invalid {@code Optional}
+     * @throws NullPointerException if a value is present and {@code mapper} returns {@code null}
+     */
+    public <U> VurlpOptional<U> map(final Function<? super T, ? extends U> mapper) {
+        if (this.value == null) {
+            return this.cast();
+        }
+        return new VurlpOptional<>(mapper.apply(this.value));
+    }
+
+    /**
+     * Like {@link #map(Function)}, but {@code mapper} returns an {@code Optional} itself, e.g. the result of
+     * another {@link Vurlp}, which is returned as it is.
+     *
+     * @param mapper a mapping function to apply to the value, if present
+     * @param <U>    the type of value of the {@code Optional} returned by the mapping function
+     * @return the result of {@code mapper}, or this invalid {@code Optional}
+     * @throws NullPointerException if a value is present and {@code mapper} returns {@code null}
+     */
+    public <U> VurlpOptional<U> flatMap(final Function<? super T, VurlpOptional<U>> mapper) {
+        if (this.value == null) {
+            return this.cast();
+        }
+        return Objects.requireNonNull(mapper.apply(this.value));
+    }
+
+    /**
+     * If a value is present and matches {@code predicate}, returns this {@code Optional}. If it doesn't match,
+     * returns an invalid {@code Optional}, which has no violations since no constraint was violated. An invalid
+     * {@code Optional} is returned as it is.
+     *
+     * @param predicate a predicate to apply to the value, if present
+     * @return this {@code Optional} if it is invalid or its value matches, otherwise an invalid {@code Optional}
+     */
+    public VurlpOptional<T> filter(final Predicate<? super T> predicate) {
+        if (this.value == null || predicate.test(this.value)) {
+            return this;
+        }
+        return new VurlpOptional<>(Collections.<ConstraintViolation<?>>emptySet());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <U> VurlpOptional<U> cast() {
+        return (VurlpOptional<U>) this;
+    }
+
     /**
      * Return the value if present, otherwise return {@code other}.
      *
@@ -197,6 +272,11 @@ public final class VurlpOptional<T> {
                 : "Optional.invalid";
     }
 
+    /**
+     * Returns the violations of an invalid {@code Optional}, which can't be modified. A valid one has none.
+     *
+     * @return the violations, empty if a value is present
+     */
     public Set<ConstraintViolation<?>> getViolations() {
         return this.violations;
     }
@@ -0,0 +1,92 @@
+package assets;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Locale;
+
+public class AdapterPojo {
+
+    @JsonAdapter(UpperCaseAdapter.class)
+    private String name;
+
+    private Code code;
+
+    private int count;
+
+    public String getName() {
+        return this.name;
+    }
+
+    public Code getCode() {
+        return this.code;
+    }
+
+    public int getCount() {
+        return this.count;
+    }
+
+    @Override
+    public String toString() {
+        return "AdapterPojo{" +
+                "name='" + this.name + '\'' +
+                ", code=" + this.code +
+                ", count=" + this.count +
+                '}';
+    }
+
+    @JsonAdapter(Code.Adapter.class)
+    public static class Code {
+
+        private String prefix;
+        private int number;
+
+        public String getPrefix() {
+            return this.prefix;
+        }
+
+        public int getNumber() {
+            return this.number;
+        }
+
+        @Override
+        public String toString() {
+            return this.prefix + "-" + this.number;
+        }
+
+        static class Adapter extends TypeAdapter<Code> {
+
+            @Override
+            public void write(final JsonWriter out, final Code value) throws IOException {
+                out.value(value.toString());
+            }
+
+            @Override
+            public Code read(final JsonReader in) throws IOException {
+                final String[] parts = in.nextString().split("-", 2);
+                final Code code = new Code();
+                code.prefix = parts[0];
+                code.number = Integer.parseInt(parts[1]);
+                return code;
+            }
+        }
+
+    }
+
+    static class UpperCaseAdapter extends TypeAdapter<String> {
+
+        @Override
+        public void write(final JsonWriter out, final String value) throws IOException {
+            out.value(value.toLowerCase(Locale.ROOT));
+        }
+
+        @Override
+        public String read(final JsonReader in) throws IOException {
+            return in.nextString().toUpperCase(Locale.ROOT);
+        }
+    }
+
+}
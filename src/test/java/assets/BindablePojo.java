@@ -0,0 +1,67 @@
+package assets;
+
+import core.CommaSeparated;
+import core.VurlpBindable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@VurlpBindable
+public class BindablePojo {
+
+    String name;
+    Integer count;
+    long total;
+    Character initial;
+    BigDecimal price;
+    TypesPojo.Sort sort;
+    @CommaSeparated
+    double[] ratios;
+    List<Integer> ids;
+    @CommaSeparated
+    Set<MultiPojo.Color> colors;
+    Map<String, String> labels;
+
+    public String getName() {
+        return this.name;
+    }
+
+    public Integer getCount() {
+        return this.count;
+    }
+
+    public long getTotal() {
+        return this.total;
+    }
+
+    public Character getInitial() {
+        return this.initial;
+    }
+
+    public BigDecimal getPrice() {
+        return this.price;
+    }
+
+    public TypesPojo.Sort getSort() {
+        return this.sort;
+    }
+
+    public double[] getRatios() {
+        return this.ratios;
+    }
+
+    public List<Integer> getIds() {
+        return this.ids;
+    }
+
+    public Set<MultiPojo.Color> getColors() {
+        return this.colors;
+    }
+
+    public Map<String, String> getLabels() {
+        return this.labels;
+    }
+
+}
@@ -0,0 +1,49 @@
+package assets;
+
+import core.CommaSeparated;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.Set;
+
+public class MultiPojo {
+
+    public enum Color {
+        RED, GREEN, BLUE
+    }
+
+    @NotNull(message = "'ids' must not be null")
+    private int[] ids;
+
+    @CommaSeparated
+    private double[] ratios;
+
+    private List<String> tags;
+
+    @CommaSeparated
+    private List<String> names;
+
+    @CommaSeparated
+    private Set<Color> colors;
+
+    public int[] getIds() {
+        return this.ids;
+    }
+
+    public double[] getRatios() {
+        return this.ratios;
+    }
+
+    public List<String> getTags() {
+        return this.tags;
+    }
+
+    public List<String> getNames() {
+        return this.names;
+    }
+
+    public Set<Color> getColors() {
+        return this.colors;
+    }
+
+}
@@ -0,0 +1,57 @@
+package assets;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PagingPojo {
+
+    public static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    @NotNull(message = "'q' must not be null")
+    @Size(min = 2, max = 32, message = "'q' must have 2 to 32 characters")
+    private String q;
+
+    @Min(value = 1, message = "'page' must be >=1")
+    private int page = 1;
+
+    @Min(value = 1, message = "'size' must be >=1")
+    @Max(value = 100, message = "'size' must be <=100")
+    private Integer size;
+
+    @Pattern(regexp = "asc|desc", message = "'sort' must be asc or desc")
+    private String sort;
+
+    public PagingPojo() {
+        INSTANCES.incrementAndGet();
+    }
+
+    public String getQ() {
+        return this.q;
+    }
+
+    public int getPage() {
+        return this.page;
+    }
+
+    public Integer getSize() {
+        return this.size;
+    }
+
+    public String getSort() {
+        return this.sort;
+    }
+
+    @Override
+    public String toString() {
+        return "PagingPojo{" +
+                "q='" + this.q + '\'' +
+                ", page=" + this.page +
+                ", size=" + this.size +
+                ", sort='" + this.sort + '\'' +
+                '}';
+    }
+}
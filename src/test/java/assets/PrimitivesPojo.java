@@ -0,0 +1,49 @@
+package assets;
+
+import core.VurlpBindable;
+
+@VurlpBindable
+public class PrimitivesPojo {
+
+    int intValue;
+    long longValue;
+    short shortValue;
+    byte byteValue;
+    float floatValue;
+    double doubleValue;
+    boolean booleanValue;
+    char charValue;
+
+    public int getIntValue() {
+        return this.intValue;
+    }
+
+    public long getLongValue() {
+        return this.longValue;
+    }
+
+    public short getShortValue() {
+        return this.shortValue;
+    }
+
+    public byte getByteValue() {
+        return this.byteValue;
+    }
+
+    public float getFloatValue() {
+        return this.floatValue;
+    }
+
+    public double getDoubleValue() {
+        return this.doubleValue;
+    }
+
+    public boolean isBooleanValue() {
+        return this.booleanValue;
+    }
+
+    public char getCharValue() {
+        return this.charValue;
+    }
+
+}
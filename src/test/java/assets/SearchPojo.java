@@ -0,0 +1,64 @@
+package assets;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.Map;
+
+public class SearchPojo {
+
+    @NotNull(message = "'q' must not be null")
+    private String q;
+
+    @Valid
+    private Filter filter;
+
+    private Map<String, String> attrs;
+
+    public String getQ() {
+        return this.q;
+    }
+
+    public Filter getFilter() {
+        return this.filter;
+    }
+
+    public Map<String, String> getAttrs() {
+        return this.attrs;
+    }
+
+    public static class Filter {
+
+        @Valid
+        private PriceRange price;
+
+        private int[] sizes;
+
+        public PriceRange getPrice() {
+            return this.price;
+        }
+
+        public int[] getSizes() {
+            return this.sizes;
+        }
+
+    }
+
+    public static class PriceRange {
+
+        @Min(value = 0, message = "'min' must not be negative")
+        private int min;
+
+        private Integer max;
+
+        public int getMin() {
+            return this.min;
+        }
+
+        public Integer getMax() {
+            return this.max;
+        }
+
+    }
+
+}
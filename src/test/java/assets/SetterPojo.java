@@ -0,0 +1,53 @@
+package assets;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Pattern;
+import java.util.Locale;
+
+public class SetterPojo {
+
+    private String name;
+
+    @Min(value = 0, message = "'count' must be >=0")
+    private int count;
+
+    private boolean active;
+
+    @Pattern(regexp = "[a-z]+", message = "'code' must be lower case letters")
+    private String code;
+
+    private String label;
+
+    public String getName() {
+        return this.name;
+    }
+
+    public void setName(final String name) {
+        this.name = name == null ? null : name.trim();
+    }
+
+    public int getCount() {
+        return this.count;
+    }
+
+    public void setCount(final int count) {
+        this.count = Math.max(count, 0);
+    }
+
+    public boolean isActive() {
+        return this.active;
+    }
+
+    public String getCode() {
+        return this.code;
+    }
+
+    public void setCode(final String code) {
+        this.code = code == null ? null : code.toLowerCase(Locale.ROOT);
+    }
+
+    public String getLabel() {
+        return this.label == null ? "none" : "[" + this.label + "]";
+    }
+
+}
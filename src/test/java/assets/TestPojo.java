@@ -1,8 +1,11 @@
 package assets;
 
+import core.VurlpBindable;
+
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
+@VurlpBindable
 public class TestPojo {
 
     private String simpleString;
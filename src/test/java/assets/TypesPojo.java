@@ -0,0 +1,77 @@
+package assets;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.math.BigDecimal;
+
+public class TypesPojo {
+
+    public enum Sort {
+        @SerializedName("asc") ASCENDING,
+        @SerializedName("desc") DESCENDING
+    }
+
+    private int page = 1;
+    private Long offset;
+    private double ratio;
+    private Boolean active;
+    private char letter;
+    private BigDecimal price;
+    private Sort sort;
+
+    @SerializedName(value = "q", alternate = "query")
+    private String searchTerm;
+
+    private transient String ignored;
+
+    public int getPage() {
+        return this.page;
+    }
+
+    public Long getOffset() {
+        return this.offset;
+    }
+
+    public double getRatio() {
+        return this.ratio;
+    }
+
+    public Boolean getActive() {
+        return this.active;
+    }
+
+    public char getLetter() {
+        return this.letter;
+    }
+
+    public BigDecimal getPrice() {
+        return this.price;
+    }
+
+    public Sort getSort() {
+        return this.sort;
+    }
+
+    public String getSearchTerm() {
+        return this.searchTerm;
+    }
+
+    public String getIgnored() {
+        return this.ignored;
+    }
+
+    @Override
+    public String toString() {
+        return "TypesPojo{" +
+                "page=" + this.page +
+                ", offset=" + this.offset +
+                ", ratio=" + this.ratio +
+                ", active=" + this.active +
+                ", letter=" + this.letter +
+                ", price=" + this.price +
+                ", sort=" + this.sort +
+                ", searchTerm='" + this.searchTerm + '\'' +
+                ", ignored='" + this.ignored + '\'' +
+                '}';
+    }
+}
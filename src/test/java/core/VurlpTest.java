@@ -1,23 +1,53 @@
 package core;
 
+import assets.AdapterPojo;
+import assets.BindablePojo;
+import assets.MultiPojo;
+import assets.PagingPojo;
+import assets.PrimitivesPojo;
+import assets.SearchPojo;
+import assets.SetterPojo;
 import assets.TestPojo;
+import assets.TypesPojo;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonSyntaxException;
 import com.google.gson.reflect.TypeToken;
 import org.junit.Test;
 
 import javax.validation.ConstraintViolation;
+import javax.validation.ElementKind;
+import javax.validation.MessageInterpolator;
 import javax.validation.Validation;
 import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.*;
 
 public class VurlpTest {
@@ -95,6 +125,66 @@ public class VurlpTest {
         assertThat(testPojoWithNull.getFloatObject(), is(1.0F));
     }
 
+    @Test
+    public void fromParamsStringEmptyPairs() {
+        VurlpOptional<TestPojo> withEmptyPairs = this.vurlp.fromParams("&&floatObject=2&&simpleString=a=b&utm_source=x&");
+        VurlpOptional<TestPojo> withoutPrefix = this.vurlpWithoutEncoding.fromParams("floatObject=3&simpleString=");
+
+        assertThat(withEmptyPairs.get().getFloatObject(), is(2.0F));
+        assertThat(withEmptyPairs.get().getSimpleString(), is("a=b"));
+        assertThat(withoutPrefix.get().getFloatObject(), is(3.0F));
+        assertThat(withoutPrefix.get().getSimpleString(), is(""));
+        assertThat(this.vurlp.fromParams("?").isValid(), is(false));
+    }
+
+    @Test
+    public void fromParamsDecodingMatchesUrlDecoder() throws Exception {
+        String[] values = {"plain-id_123", "a+b+c", "%C3%BCber%20alles", "%F0%9F%98%80", "caf%C3%A9+%E2%82%AC",
+                "%C3", "%C3%28", "%E2%82", "%ED%A0%80", "%FF%41", "%f0%9f%98%80x"};
+
+        for (String value : values) {
+            VurlpOptional<TestPojo> params = this.vurlp.fromParams("?simpleString=" + value + "&floatObject=1");
+            assertThat(params.get().getSimpleString(), is(java.net.URLDecoder.decode(value, "UTF-8")));
+        }
+    }
+
+    @Test
+    public void fromParamsMalformedEscape() {
+        Map<String,String> map = new HashMap<>();
+        map.put("floatObject", "1");
+        map.put("simpleString", "100%");
+
+        VurlpOptional<TestPojo> viaString = this.vurlp.fromParams("?floatObject=1&simpleString=a%2x");
+        VurlpOptional<TestPojo> viaMap = this.vurlp.fromParams(map);
+        VurlpOptional<TestPojo> withoutDecoding = this.vurlpWithoutEncoding.fromParams("?floatObject=1&simpleString=a%2x");
+
+        assertThat(viaString.isValid(), is(false));
+        assertThat(viaString.getViolations().size(), is(1));
+        assertThat(viaString.getViolationsAsString(), is("'simpleString' is not properly URL encoded: " +
+                "illegal hex characters in escape (%) pattern at index 1"));
+        ConstraintViolation<?> violation = viaString.getViolations().iterator().next();
+        assertThat(violation.getInvalidValue(), is("a%2x"));
+        assertThat(violation.getPropertyPath().toString(), is("simpleString"));
+        assertThat(violation.getPropertyPath().iterator().next().getKind(), is(ElementKind.PROPERTY));
+        assertThat(violation.getConstraintDescriptor().getAnnotation().annotationType() == UrlEncoded.class, is(true));
+        assertThat(viaMap.getViolationsAsString(), containsString("incomplete trailing escape (%) pattern at index 3"));
+        assertThat(withoutDecoding.get().getSimpleString(), is("a%2x"));
+
+        // Reported while decoding, with the index in the whole value, and like for query strings only for bound names
+        Vurlp<MultiPojo> multi = new Vurlp<>(MultiPojo.class);
+        Map<String, String> parts = new HashMap<>();
+        parts.put("ids", "1");
+        parts.put("names", "a,b%G1");
+        parts.put("unknown", "%G");
+        assertThat(multi.fromParams(parts).getViolationsAsString(), is("'names' is not properly URL encoded: " +
+                "illegal hex characters in escape (%) pattern at index 3"));
+        parts.remove("names");
+        assertThat(multi.fromParams(parts).isValid(), is(true));
+        assertThat(multi.fromParams("?ids=1&unknown=%G").isValid(), is(true));
+        assertThat(new Vurlp<>(TestPojo.class, new Gson(), true).fromParams(map).getViolationsAsString(),
+                is(viaMap.getViolationsAsString()));
+    }
+
     @Test
     public void fromParamsViaString() {
         Map<String,String> map1 = new HashMap<>();
@@ -108,6 +198,860 @@ public class VurlpTest {
         assertThat(testPojo1.getSimpleString(), is("some Stri=ng"));
     }
 
+    @Test
+    public void fromParamsBindingPlanMatchesGson() {
+        Vurlp<TypesPojo> withPlan = new Vurlp<>(TypesPojo.class);
+        Vurlp<TypesPojo> withGson = new Vurlp<>(TypesPojo.class, new Gson(), true);
+        String[] queries = {
+                "?offset=20&ratio=0.5&active=true&letter=x&price=9.99&sort=desc&q=red+shoes",
+                "?page=3&query=alternate&sort=unknown&ignored=nope",
+                "?page&offset=&unknown=1",
+                ""
+        };
+
+        for (String query : queries) {
+            TypesPojo expected = withGson.fromParams(query).get();
+            TypesPojo actual = withPlan.fromParams(query).get();
+            assertThat(actual.toString(), is(expected.toString()));
+        }
+
+        TypesPojo typesPojo = withPlan.fromParams(queries[0]).get();
+        assertThat(typesPojo.getPage(), is(1));
+        assertThat(typesPojo.getSort(), is(TypesPojo.Sort.DESCENDING));
+        assertThat(typesPojo.getSearchTerm(), is("red shoes"));
+        assertThat(withPlan.fromParams(queries[1]).get().getIgnored(), is(nullValue()));
+    }
+
+    @Test
+    public void bindingPlanUsesJsonAdapters() {
+        Vurlp<AdapterPojo> withPlan = new Vurlp<>(AdapterPojo.class);
+        Vurlp<AdapterPojo> withGson = new Vurlp<>(AdapterPojo.class, new Gson(), true);
+        String query = "?name=abc&code=AB-12&count=3";
+
+        assertThat(BindingPlan.of(AdapterPojo.class, new Gson()) != null, is(true));
+        AdapterPojo adapterPojo = withPlan.fromParams(query).get();
+        assertThat(adapterPojo.toString(), is(withGson.fromParams(query).get().toString()));
+        assertThat(adapterPojo.getName(), is("ABC"));
+        assertThat(adapterPojo.getCode().getNumber(), is(12));
+        assertThat(withPlan.fromParams("?code.prefix=AB").get().getCode(), is(nullValue()));
+        assertThat(withPlan.toParams(adapterPojo).get(), is(withGson.toParams(adapterPojo).get()));
+        assertThat(withPlan.toParams(adapterPojo).get(), is("?name=abc&code=AB-12&count=3"));
+    }
+
+    @Test
+    public void sharedValidator() {
+        Validator shared = ValidatorRegistry.getValidator();
+        assertThat(ValidatorRegistry.getValidator(), is(shared));
+
+        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+        try {
+            Vurlp<TestPojo> withOwnFactory = new Vurlp<>(TestPojo.class, factory);
+            assertThat(withOwnFactory.fromParams("?floatObject=0").getViolationsAsString(), is("'floatObject' must be >=1"));
+        } finally {
+            factory.close();
+        }
+    }
+
+    @Test
+    public void closeSharedValidator() throws Exception {
+        Validator shared = ValidatorRegistry.getValidator();
+        Vurlp<TestPojo> registered = Vurlp.forClass(TestPojo.class);
+
+        // Closing the real registry would break Vurlp instances other tests still hold, so close an isolated copy
+        try (URLClassLoader isolated = new IsolatedPackageClassLoader(Vurlp.class)) {
+            Class<?> registry = Class.forName(ValidatorRegistry.class.getName(), true, isolated);
+            Class<?> vurlpClass = Class.forName(Vurlp.class.getName(), true, isolated);
+            Object isolatedShared = registry.getMethod("getValidator").invoke(null);
+            Object isolatedRegistered = vurlpClass.getMethod("forClass", Class.class).invoke(null, TestPojo.class);
+
+            registry.getMethod("close").invoke(null);
+            assertThat(registry.getMethod("getValidator").invoke(null) == isolatedShared, is(false));
+            assertThat(vurlpClass.getMethod("forClass", Class.class).invoke(null, TestPojo.class)
+                    == isolatedRegistered, is(false));
+            Object rebuilt = vurlpClass.getConstructor(Class.class).newInstance(TestPojo.class);
+            Object params = vurlpClass.getMethod("fromParams", String.class).invoke(rebuilt, "?floatObject=1");
+            assertThat(params.getClass().getMethod("isValid").invoke(params), is(true));
+            registry.getMethod("close").invoke(null);
+        }
+
+        assertThat(ValidatorRegistry.getValidator() == shared, is(true));
+        assertThat(Vurlp.forClass(TestPojo.class) == registered, is(true));
+    }
+
+    @Test
+    public void forClassRegistry() {
+        Vurlp.warmUp(TestPojo.class, TypesPojo.class);
+        Gson gson = new Gson();
+
+        assertThat(Vurlp.forClass(TestPojo.class) == Vurlp.forClass(TestPojo.class, true), is(true));
+        assertThat(Vurlp.forClass(TestPojo.class) == Vurlp.forClass(TestPojo.class, false), is(false));
+        assertThat(Vurlp.forClass(TestPojo.class, gson, true) == Vurlp.forClass(TestPojo.class, gson, true), is(true));
+        assertThat(Vurlp.forClass(TestPojo.class, gson, true) == Vurlp.forClass(TestPojo.class, new Gson(), true), is(false));
+        assertThat(Vurlp.forClass(TestPojo.class).fromParams("?floatObject=2").get().getFloatObject(), is(2.0F));
+    }
+
+    @Test
+    public void generatedBinder() {
+        Binder<TestPojo> binder = BindingPlan.binderFor(TestPojo.class);
+        assertThat(binder.getClass().getName(), is("assets.TestPojo" + Binder.SUFFIX));
+        assertThat(Arrays.asList(binder.fieldNames()), is(Arrays.asList("simpleString", "floatObject")));
+        assertThat(BindingPlan.binderFor(TypesPojo.class), nullValue());
+
+        Vurlp<TestPojo> vurlp = new Vurlp<>(TestPojo.class);
+        TestPojo testPojo = vurlp.fromParams("?simpleString=some%20String&floatObject=1.5").get();
+        assertThat(testPojo.getSimpleString(), is("some String"));
+        assertThat(testPojo.getFloatObject(), is(1.5F));
+        assertThat(vurlp.toParams(testPojo).get(), is("?simpleString=some+String&floatObject=1.5"));
+        assertThat(vurlp.fromParams("?simpleString=x").getViolationsAsString(), is(new Vurlp<>(TestPojo.class, new Gson(), true)
+                .fromParams("?simpleString=x").getViolationsAsString()));
+    }
+
+    @Test
+    public void generatedBinderConvertsValues() {
+        Binder<BindablePojo> binder = BindingPlan.binderFor(BindablePojo.class);
+        List<String> fieldNames = Arrays.asList(binder.fieldNames());
+        assertThat(binder.converts(fieldNames.indexOf("sort")), is(true));
+        assertThat(binder.converts(fieldNames.indexOf("ratios")), is(true));
+        assertThat(binder.converts(fieldNames.indexOf("labels")), is(false));
+        assertThat(binder.convert(fieldNames.indexOf("sort"), "xdescx", 1, 5), is((Object) TypesPojo.Sort.DESCENDING));
+        assertThat(binder.convert(fieldNames.indexOf("sort"), "unknown", 0, 7), nullValue());
+        assertThat(binder.format(fieldNames.indexOf("sort"), TypesPojo.Sort.ASCENDING), is("asc"));
+        assertThat(binder.convert(fieldNames.indexOf("count"), "42", 0, 2), is((Object) 42));
+        assertThat(Double.longBitsToDouble(binder.convertBits(fieldNames.indexOf("ratios"), "0.25", 0, 4)), is(0.25));
+
+        Vurlp<BindablePojo> vurlp = new Vurlp<>(BindablePojo.class);
+        String query = "?name=a+b&count=7&total=12345678901&initial=%C3%A9&price=9.99&sort=desc"
+                + "&ratios=0.5,1.5&ids=1&ids=2&colors=RED,BLUE&labels[en]=hi";
+        BindablePojo bindablePojo = vurlp.fromParams(query).get();
+        assertThat(bindablePojo.getName(), is("a b"));
+        assertThat(bindablePojo.getCount(), is(7));
+        assertThat(bindablePojo.getTotal(), is(12345678901L));
+        assertThat(bindablePojo.getInitial(), is('\u00E9'));
+        assertThat(bindablePojo.getPrice(), is(new BigDecimal("9.99")));
+        assertThat(bindablePojo.getSort(), is(TypesPojo.Sort.DESCENDING));
+        assertThat(bindablePojo.getRatios(), is(new double[]{0.5, 1.5}));
+        assertThat(bindablePojo.getIds(), is(Arrays.asList(1, 2)));
+        assertThat(bindablePojo.getColors(), is(EnumSet.of(MultiPojo.Color.RED, MultiPojo.Color.BLUE)));
+        assertThat(bindablePojo.getLabels().get("en"), is("hi"));
+        assertThat(vurlp.toParams(bindablePojo).get(), is(query));
+        assertThat(messageOf(() -> vurlp.fromParams("?count=x")),
+                is(messageOf(() -> new Vurlp<>(TypesPojo.class, new Gson(), true).fromParams("?offset=x"))));
+    }
+
+    @Test
+    public void runtimeAccessorsUseSetters() {
+        Vurlp<SetterPojo> vurlp = new Vurlp<>(SetterPojo.class);
+        SetterPojo setterPojo = vurlp.fromParams("?name=%20trimmed%20&count=-3&active=true").get();
+
+        assertThat(setterPojo.getName(), is("trimmed"));
+        assertThat(setterPojo.getCount(), is(0));
+        assertThat(setterPojo.isActive(), is(true));
+        assertThat(vurlp.toParams(setterPojo).get(), is("?name=trimmed&count=0&active=true"));
+
+        // Constraints hold for what the setters assign, not for the raw parameters
+        for (Vurlp<SetterPojo> checked : Arrays.asList(vurlp, new Vurlp<>(SetterPojo.class, true, true))) {
+            SetterPojo normalized = checked.fromParams("?code=ABC&count=-5").get();
+            assertThat(normalized.getCode(), is("abc"));
+            assertThat(normalized.getCount(), is(0));
+            assertThat(checked.fromParams("?code=A1").getViolationsAsString(), is("'code' must be lower case letters"));
+        }
+
+        Vurlp<TypesPojo> typesVurlp = new Vurlp<>(TypesPojo.class);
+        String params = "?page=3&offset=7&ratio=0.5&active=false&letter=x&price=1.25&sort=desc&q=term";
+        assertThat(typesVurlp.toParams(typesVurlp.fromParams(params).get()).get(), is(params));
+    }
+
+    @Test
+    public void toParamsReadsFieldsLikeGson() {
+        // Gson serializes the field, not what its getter makes of it
+        Vurlp<SetterPojo> vurlp = new Vurlp<>(SetterPojo.class);
+        SetterPojo labeled = vurlp.fromParams("?label=x&count=1").get();
+        assertThat(labeled.getLabel(), is("[x]"));
+        assertThat(vurlp.toParams(labeled).get(), is("?count=1&active=false&label=x"));
+        assertThat(vurlp.toParams(labeled).get(),
+                is(new Vurlp<>(SetterPojo.class, new Gson(), true).toParams(labeled).get()));
+        assertThat(vurlp.toParams(new SetterPojo()).get(), is("?count=0&active=false"));
+    }
+
+    @Test
+    public void toParamsRejectsSpecialFloatingPointValuesLikeGson() {
+        assertSameFailure(TypesPojo.class, "?ratio=NaN");
+        assertSameFailure(TypesPojo.class, "?ratio=-Infinity");
+        assertSameFailure(MultiPojo.class, "?ids=1&ratios=0.5,Infinity");
+        // Generated binder
+        assertSameFailure(PrimitivesPojo.class, "?floatValue=NaN");
+        assertSameFailure(PrimitivesPojo.class, "?doubleValue=Infinity");
+    }
+
+    private static <T> void assertSameFailure(Class<T> clazz, String params) {
+        Vurlp<T> vurlp = new Vurlp<>(clazz);
+        T object = vurlp.fromParams(params).get();
+        String expected = null;
+        try {
+            new Vurlp<>(clazz, new Gson(), true).toParams(object);
+            fail();
+        } catch (IllegalArgumentException e) {
+            expected = e.getMessage();
+        }
+        try {
+            vurlp.toParams(object);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is(expected));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void runtimeAccessorsForChildClassLoader() throws Exception {
+        // The library can't see this copy of SetterPojo, so its accessors can't be spun as lambdas
+        try (URLClassLoader child = new IsolatedPackageClassLoader(SetterPojo.class)) {
+            Class<Object> setterPojoClass = (Class<Object>) Class.forName(SetterPojo.class.getName(), true, child);
+            assertThat(setterPojoClass.getName().equals(SetterPojo.class.getName()) && setterPojoClass != (Class<?>) SetterPojo.class, is(true));
+
+            Vurlp<Object> vurlp = new Vurlp<>(setterPojoClass);
+            Object setterPojo = vurlp.fromParams("?name=%20trimmed%20&count=-3&active=true&code=ABC").get();
+            assertThat(setterPojoClass.getMethod("getName").invoke(setterPojo), is((Object) "trimmed"));
+            assertThat(setterPojoClass.getMethod("getCode").invoke(setterPojo), is((Object) "abc"));
+            assertThat(vurlp.toParams(setterPojo).get(), is("?name=trimmed&count=0&active=true&code=abc"));
+        }
+    }
+
+    @Test
+    public void primitiveConvertersMatchGson() {
+        Vurlp<PrimitivesPojo> vurlp = new Vurlp<>(PrimitivesPojo.class);
+        Vurlp<PrimitivesPojo> viaGson = new Vurlp<>(PrimitivesPojo.class, new Gson(), true);
+        String[] queries = {
+                "?intValue=-2147483648&longValue=9223372036854775807&shortValue=70000&byteValue=-129",
+                "?intValue=%2B42&longValue=-0&floatValue=0.1&doubleValue=-12.75&booleanValue=TRUE&charValue=%C3%BC",
+                "?floatValue=3.4028235e38&doubleValue=1e-7&booleanValue=yes&charValue=+",
+                "?doubleValue=9007199254740993&floatValue=.5&intValue=\u0661\u0662",
+                "?doubleValue=0.1234567890123456789012&floatValue=1e3&booleanValue=tRuE"
+        };
+
+        for (String query : queries) {
+            assertThat(query, vurlp.toParams(vurlp.fromParams(query).get()).get(),
+                    is(viaGson.toParams(viaGson.fromParams(query).get()).get()));
+        }
+        assertThat(new Vurlp<>(PrimitivesPojo.class, false).toParams(vurlp.fromParams("?charValue=%26").get()).get(),
+                containsString("charValue=&"));
+
+        for (String invalid : new String[]{"?intValue=2147483648", "?intValue=1.0", "?intValue=-", "?charValue=ab"}) {
+            try {
+                vurlp.fromParams(invalid);
+                fail(invalid);
+            } catch (JsonSyntaxException e) {
+                assertThat(invalid, e.getMessage(), is(messageOf(() -> viaGson.fromParams(invalid))));
+            }
+        }
+    }
+
+    private static String messageOf(Runnable runnable) {
+        try {
+            runnable.run();
+            return null;
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Test
+    public void primitiveParsingMatchesJdk() {
+        Random random = new Random(13);
+        String alphabet = "0123456789.-+e ";
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(random.nextBoolean() ? 25 : 8);
+            for (int j = 0; j < length; j++) {
+                sb.append(random.nextInt(4) == 0 ? alphabet.charAt(random.nextInt(alphabet.length()))
+                        : (char) ('0' + random.nextInt(10)));
+            }
+            String value = sb.toString();
+            assertThat(value, messageOf(() -> Converters.parseDouble(value, 0, value.length())),
+                    is(messageOf(() -> Double.parseDouble(value))));
+            if (messageOf(() -> Double.parseDouble(value)) == null) {
+                assertThat(value, Double.doubleToRawLongBits(Converters.parseDouble(value, 0, value.length())),
+                        is(Double.doubleToRawLongBits(Double.parseDouble(value))));
+            }
+            String intMessage = messageOf(() -> Integer.parseInt(value));
+            assertThat(value, messageOf(() -> Converters.parseInt(value, 0, value.length())),
+                    is(intMessage == null ? null : new JsonSyntaxException(new NumberFormatException(intMessage)).getMessage()));
+            if (intMessage == null) {
+                assertThat(value, Converters.parseInt(value, 0, value.length()), is(Integer.parseInt(value)));
+                assertThat(value, Converters.parseLong(value, 0, value.length()), is(Long.parseLong(value)));
+            }
+        }
+    }
+
+    @Test
+    public void fromParamsMultiValued() {
+        Vurlp<MultiPojo> vurlp = new Vurlp<>(MultiPojo.class);
+        String query = "?ids=3&ids=1&ids=&ids&ratios=0.5,1.5&ratios=2&tags=a%2Cb&tags=c+d"
+                + "&names=x%2Cy,,z&colors=BLUE,RED&colors=PURPLE";
+        MultiPojo multiPojo = vurlp.fromParams(query).get();
+
+        assertThat(multiPojo.getIds(), is(new int[]{3, 1}));
+        assertThat(multiPojo.getRatios(), is(new double[]{0.5, 1.5, 2}));
+        assertThat(multiPojo.getTags(), is(Arrays.asList("a,b", "c d")));
+        assertThat(multiPojo.getNames(), is(Arrays.asList("x,y", "z")));
+        assertThat(multiPojo.getColors(), is(EnumSet.of(MultiPojo.Color.RED, MultiPojo.Color.BLUE)));
+
+        String params = vurlp.toParams(multiPojo).get();
+        assertThat(params, is("?ids=3&ids=1&ratios=0.5,1.5,2.0&tags=a%2Cb&tags=c+d&names=x%2Cy,z&colors=RED,BLUE"));
+        assertThat(vurlp.toParams(vurlp.fromParams(params).get()).get(), is(params));
+
+        Map<String, String> map = new HashMap<>();
+        map.put("ids", "7");
+        map.put("names", "x%2Cy,z");
+        MultiPojo fromMap = vurlp.fromParams(map).get();
+        assertThat(fromMap.getIds(), is(new int[]{7}));
+        assertThat(fromMap.getNames(), is(Arrays.asList("x,y", "z")));
+        assertThat(fromMap.getTags(), nullValue());
+
+        assertThat(vurlp.fromParams("?ids=&tags=a").getViolationsAsString(), containsString("'ids' must not be null"));
+    }
+
+    @Test
+    public void fromParamsNested() {
+        Vurlp<SearchPojo> vurlp = new Vurlp<>(SearchPojo.class);
+        String query = "?q=shoes&filter.price.min=10&filter[price][max]=20&filter%5Bsizes%5D%5B%5D=42"
+                + "&filter[sizes][]=43&attrs[color]=dark+red&attrs.brand=acme&filter[price]=1&filter[unknown]=2"
+                + "&filter[price&attrs[]=x";
+        SearchPojo searchPojo = vurlp.fromParams(query).get();
+
+        assertThat(searchPojo.getQ(), is("shoes"));
+        assertThat(searchPojo.getFilter().getPrice().getMin(), is(10));
+        assertThat(searchPojo.getFilter().getPrice().getMax(), is(20));
+        assertThat(searchPojo.getFilter().getSizes(), is(new int[]{42, 43}));
+        assertThat(searchPojo.getAttrs().get("color"), is("dark red"));
+        assertThat(searchPojo.getAttrs().get("brand"), is("acme"));
+        assertThat(searchPojo.getAttrs().size(), is(2));
+
+        String params = vurlp.toParams(searchPojo).get();
+        assertThat(params, is("?q=shoes&filter[price][min]=10&filter[price][max]=20&filter[sizes]=42&filter[sizes]=43"
+                + "&attrs[color]=dark+red&attrs[brand]=acme"));
+        assertThat(vurlp.toParams(vurlp.fromParams(params).get()).get(), is(params));
+
+        Map<String, String> map = new HashMap<>();
+        map.put("q", "shoes");
+        map.put("filter[price][min]", "-1");
+        VurlpOptional<SearchPojo> invalid = vurlp.fromParams(map);
+        assertThat(invalid.isValid(), is(false));
+        assertThat(invalid.getViolationsAsString(), containsString("'min' must not be negative"));
+
+        assertThat(vurlp.fromParams("?q=shoes").get().getFilter(), nullValue());
+        assertThat(vurlp.fromParams("?q=shoes&filter.price.max=%G1").isValid(), is(false));
+    }
+
+    @Test
+    public void fromParamsCharSequenceAndBytes() {
+        Vurlp<MultiPojo> vurlp = new Vurlp<>(MultiPojo.class);
+        String query = "?ids=3&ids=1&tags=Gr%C3%BC%C3%9Fe+aus&tags=M%C3%BCnchen&names=a,b&utm_source=x";
+        String expected = vurlp.toParams(vurlp.fromParams(query).get()).get();
+
+        char[] chars = ("xx" + query + "yy").toCharArray();
+        assertThat(vurlp.toParams(vurlp.fromParams(new StringBuilder(query)).get()).get(), is(expected));
+        assertThat(vurlp.toParams(vurlp.fromParams(chars, 2, query.length()).get()).get(), is(expected));
+
+        ByteBuffer heap = ByteBuffer.wrap(("xx" + query).getBytes(StandardCharsets.US_ASCII));
+        heap.position(2);
+        ByteBuffer direct = ByteBuffer.allocateDirect(query.length());
+        direct.put(query.getBytes(StandardCharsets.US_ASCII)).flip();
+        assertThat(vurlp.toParams(vurlp.fromParams(heap, StandardCharsets.UTF_8).get()).get(), is(expected));
+        assertThat(vurlp.toParams(vurlp.fromParams(direct, StandardCharsets.ISO_8859_1).get()).get(), is(expected));
+        assertThat(heap.position(), is(2));
+        assertThat(direct.position(), is(0));
+
+        String raw = "?ids=1&tags=Grüße aus&tags=München";
+        for (Charset charset : Arrays.asList(StandardCharsets.UTF_8, StandardCharsets.UTF_16LE)) {
+            MultiPojo fromBytes = vurlp.fromParams(ByteBuffer.wrap(raw.getBytes(charset)), charset).get();
+            assertThat(fromBytes.getTags(), is(Arrays.asList("Grüße aus", "München")));
+        }
+
+        VurlpOptional<MultiPojo> malformed = vurlp.fromParams(ByteBuffer.wrap("?ids=1&tags=%G1".getBytes(
+                StandardCharsets.US_ASCII)), StandardCharsets.US_ASCII);
+        assertThat(malformed.getViolationsAsString(), containsString("'tags' is not properly URL encoded"));
+    }
+
+    @Test
+    public void sharedInstanceUnderContention() throws Exception {
+        Vurlp<MultiPojo> vurlp = Vurlp.forClass(MultiPojo.class);
+        Vurlp<TestPojo> viaGson = new Vurlp<>(TestPojo.class, new Gson(), true);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            results.add(executor.submit(() -> {
+                start.await();
+                int checked = 0;
+                for (int i = 0; i < 2000; i++) {
+                    String tag = "t" + thread + "%C3%BC" + i;
+                    String query = "?ids=" + thread + "&ids=" + i + "&tags=" + tag + "&names=a,b" + i;
+                    MultiPojo parsed = vurlp.fromParams(query).get();
+                    assertThat(parsed.getIds(), is(new int[]{thread, i}));
+                    assertThat(parsed.getTags(), is(Collections.singletonList("t" + thread + "ü" + i)));
+                    assertThat(vurlp.toParams(parsed).get(), is(query));
+
+                    Map<String, String> map = Collections.unmodifiableMap(Collections.singletonMap("ids", "" + i));
+                    assertThat(vurlp.fromParams(map).get().getIds(), is(new int[]{i}));
+                    assertThat(vurlp.fromParams("?ids=%G" + i).isValid(), is(false));
+
+                    StringBuilder out = new StringBuilder();
+                    viaGson.toParams(viaGson.fromParams("?simpleString=" + tag + "&floatObject=" + (i + 1)).get(), out);
+                    assertThat(out.toString(), is("?simpleString=" + tag + "&floatObject=" + (i + 1) + ".0"));
+                    checked++;
+                }
+                return checked;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<Integer> result : results) {
+                assertThat(result.get(60, TimeUnit.SECONDS), is(2000));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void nameIndexLookup() {
+        Map<String, Integer> entries = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            entries.put("field" + i, i);
+        }
+        // Same hash code as "Aa"
+        entries.put("Aa", -1);
+        entries.put("BB", -2);
+        entries.put("", -3);
+        NameIndex<Integer> index = NameIndex.of(entries);
+
+        for (Map.Entry<String, Integer> entry : entries.entrySet()) {
+            String query = "?" + entry.getKey() + "&";
+            assertThat(index.get(query, 1, query.length() - 1), is(entry.getValue()));
+        }
+        assertThat(index.get("utm_source", 0, 10), nullValue());
+        assertThat(index.get("field100", 0, 8), nullValue());
+        assertThat(index.get("Ab", 0, 2), nullValue());
+        assertThat(NameIndex.of(Collections.<String, Integer>emptyMap()).get("a", 0, 1), nullValue());
+    }
+
+    @Test
+    public void fromParamsReadOnlyMaps() {
+        Map<String, String> params = new HashMap<>();
+        params.put("simpleString", "a%2Bb+c");
+        params.put("floatObject", "2.5");
+        params.put("unknown", "");
+        Map<String, String> readOnly = Collections.unmodifiableMap(params);
+        Map<String, String> copy = new HashMap<>(params);
+
+        for (Vurlp<TestPojo> vurlp : Arrays.asList(this.vurlp, new Vurlp<>(TestPojo.class, new Gson(), true))) {
+            TestPojo testPojo = vurlp.fromParams(readOnly).get();
+            assertThat(testPojo.getSimpleString(), is("a+b c"));
+            assertThat(testPojo.getFloatObject(), is(2.5F));
+            assertThat(params, is(copy));
+        }
+
+        Vurlp<MultiPojo> multi = new Vurlp<>(MultiPojo.class, false);
+        Map<String, String[]> parameterMap = new HashMap<>();
+        parameterMap.put("ids", new String[]{"1", "2"});
+        parameterMap.put("tags", new String[]{"a b", "c+d"});
+        parameterMap.put("names", new String[]{"x,y"});
+        MultiPojo multiPojo = multi.fromParameterMap(Collections.unmodifiableMap(parameterMap)).get();
+        assertThat(multiPojo.getIds(), is(new int[]{1, 2}));
+        assertThat(multiPojo.getTags(), is(Arrays.asList("a b", "c+d")));
+        assertThat(multiPojo.getNames(), is(Arrays.asList("x", "y")));
+
+        Map<String, String[]> encoded = Collections.singletonMap("floatObject", new String[]{"1", "%G2"});
+        assertThat(this.vurlp.fromParameterMap(encoded).getViolationsAsString(),
+                containsString("'floatObject' is not properly URL encoded"));
+        Map<String, String[]> lastWins = Collections.singletonMap("floatObject", new String[]{"1", "3"});
+        assertThat(this.vurlp.fromParameterMap(lastWins).get().getFloatObject(), is(3.0F));
+        assertThat(new Vurlp<>(TestPojo.class, new Gson(), true).fromParameterMap(lastWins).get().getFloatObject(),
+                is(3.0F));
+    }
+
+    @Test
+    public void fromParamsFailFast() {
+        String query = "?page=0&size=1000&sort=random";
+        VurlpOptional<PagingPojo> allViolations = new Vurlp<>(PagingPojo.class).fromParams(query);
+        VurlpOptional<PagingPojo> firstViolation = new Vurlp<>(PagingPojo.class, true, true).fromParams(query);
+
+        assertThat(allViolations.getViolations().size(), is(4));
+        assertThat(firstViolation.isValid(), is(false));
+        assertThat(firstViolation.getViolations().size(), is(1));
+        assertThat(Vurlp.forClass(PagingPojo.class, true, true) == Vurlp.forClass(PagingPojo.class, true, true), is(true));
+        assertThat(Vurlp.forClass(PagingPojo.class, true, true) == Vurlp.forClass(PagingPojo.class), is(false));
+        assertThat(Vurlp.forClass(PagingPojo.class, true, true).fromParams("?q=ok").isValid(), is(true));
+    }
+
+    @Test
+    public void fromParamsParameterChecksMatchValidator() {
+        Vurlp<PagingPojo> withChecks = new Vurlp<>(PagingPojo.class);
+        Vurlp<PagingPojo> withoutChecks = new Vurlp<>(PagingPojo.class, new Gson(), true);
+        Vurlp<PagingPojo> failFast = new Vurlp<>(PagingPojo.class, true, true);
+        String[] queries = {
+                "?q=shoes&page=2&size=100&sort=asc",
+                "?page=0&size=1000&sort=random",
+                "?q=x&size=0",
+                "?q=" + String.join("", Collections.nCopies(33, "a")) + "&page=-1",
+                "?q=ok&size=101&sort=desc",
+                "?size=50"
+        };
+
+        for (String query : queries) {
+            VurlpOptional<PagingPojo> expected = withoutChecks.fromParams(query);
+            VurlpOptional<PagingPojo> actual = withChecks.fromParams(query);
+            VurlpOptional<PagingPojo> firstOnly = failFast.fromParams(query);
+
+            assertThat(actual.isValid(), is(expected.isValid()));
+            assertThat(messagesOf(actual), is(messagesOf(expected)));
+            assertThat(firstOnly.isValid(), is(expected.isValid()));
+            if (!expected.isValid()) {
+                assertThat(firstOnly.getViolations().size(), is(1));
+                assertThat(messagesOf(expected).containsAll(messagesOf(firstOnly)), is(true));
+            }
+        }
+    }
+
+    @Test
+    public void fromParamsParameterChecksRejectBeforeBinding() {
+        Vurlp<PagingPojo> vurlp = new Vurlp<>(PagingPojo.class);
+        Vurlp<PagingPojo> failFast = new Vurlp<>(PagingPojo.class, true, true);
+        int instances = PagingPojo.INSTANCES.get();
+
+        assertThat(vurlp.fromParams("?q=x&size=0").isValid(), is(false));
+        assertThat(failFast.fromParams("?page=0&size=1000").isValid(), is(false));
+        assertThat(vurlp.fromParams("?size=50").isValid(), is(false));
+        assertThat(PagingPojo.INSTANCES.get(), is(instances));
+
+        assertThat(vurlp.fromParams("?q=ok&size=50").isValid(), is(true));
+        assertThat(PagingPojo.INSTANCES.get(), is(instances + 1));
+    }
+
+    @Test
+    public void fromParamsInterpolatesMessagesLazily() {
+        AtomicInteger interpolations = new AtomicInteger();
+        ValidatorFactory factory = countingValidatorFactory(interpolations);
+        try {
+            Vurlp<PagingPojo> vurlp = new Vurlp<>(PagingPojo.class, factory.getValidator());
+
+            VurlpOptional<PagingPojo> first = vurlp.fromParams("?q=x&size=0");
+            assertThat(interpolations.get(), is(0));
+            for (ConstraintViolation<?> violation : first.getViolations()) {
+                assertThat(violation.getRootBean(), is(nullValue()));
+            }
+            assertThat(first.getViolationsAsString(), containsString("'size' must be >=1"));
+            int afterFirst = interpolations.get();
+            assertThat(afterFirst > 0, is(true));
+
+            VurlpOptional<PagingPojo> second = vurlp.fromParams("?q=y&size=-5");
+            assertThat(messagesOf(second), is(new HashSet<>(Arrays.asList("q: 'q' must have 2 to 32 characters (y)",
+                    "size: 'size' must be >=1 (-5)"))));
+            assertThat(interpolations.get(), is(afterFirst));
+            for (ConstraintViolation<?> violation : second.getViolations()) {
+                assertThat(violation.getConstraintDescriptor() != null, is(true));
+            }
+        } finally {
+            factory.close();
+        }
+    }
+
+    @Test
+    public void fromParamsRejectsFloatBoundsLazily() {
+        AtomicInteger interpolations = new AtomicInteger();
+        ValidatorFactory factory = countingValidatorFactory(interpolations);
+        try {
+            Validator validator = factory.getValidator();
+            Vurlp<TestPojo> vurlp = new Vurlp<>(TestPojo.class, validator);
+
+            VurlpOptional<TestPojo> rejected = vurlp.fromParams("?simpleString=x&floatObject=0.5");
+            assertThat(rejected.isValid(), is(false));
+            assertThat(interpolations.get(), is(0));
+            assertThat(rejected.getViolationsAsString(), is("'floatObject' must be >=1"));
+            ConstraintViolation<?> rejection = rejected.getViolations().iterator().next();
+            assertThat(((TestPojo) rejection.getRootBean()).getFloatObject(), is(0.5F));
+            assertThat(rejection.getLeafBean() == rejection.getRootBean(), is(true));
+
+            for (String value : Arrays.asList("0.5", "0.99", "1", "1.5", "-0.5", "-0", "1e30", "-1e30", "Infinity",
+                    "-Infinity", "NaN")) {
+                VurlpOptional<TestPojo> result = vurlp.fromParams("?simpleString=x&floatObject=" + value);
+                Set<String> expected = new HashSet<>();
+                for (ConstraintViolation<TestPojo> violation
+                        : validator.validate(new TestPojo("x", Float.parseFloat(value)))) {
+                    expected.add(violation.getMessage());
+                }
+                Set<String> actual = new HashSet<>();
+                for (ConstraintViolation<?> violation : result.getViolations()) {
+                    actual.add(violation.getMessage());
+                }
+                assertThat(value, actual, is(expected));
+                assertThat(value, result.isValid(), is(expected.isEmpty()));
+            }
+        } finally {
+            factory.close();
+        }
+    }
+
+    /**
+     * Returns a factory of validators which count every message interpolation in {@code interpolations}.
+     */
+    private static ValidatorFactory countingValidatorFactory(AtomicInteger interpolations) {
+        MessageInterpolator defaultInterpolator = Validation.byDefaultProvider().configure()
+                .getDefaultMessageInterpolator();
+        return Validation.byDefaultProvider().configure()
+                .messageInterpolator(new MessageInterpolator() {
+                    @Override
+                    public String interpolate(String template, Context context) {
+                        interpolations.incrementAndGet();
+                        return defaultInterpolator.interpolate(template, context);
+                    }
+
+                    @Override
+                    public String interpolate(String template, Context context, Locale locale) {
+                        interpolations.incrementAndGet();
+                        return defaultInterpolator.interpolate(template, context, locale);
+                    }
+                })
+                .buildValidatorFactory();
+    }
+
+    private static Set<String> messagesOf(VurlpOptional<?> vurlpOptional) {
+        Set<String> messages = new HashSet<>();
+        for (ConstraintViolation<?> violation : vurlpOptional.getViolations()) {
+            messages.add(violation.getPropertyPath() + ": " + violation.getMessage() + " (" + violation.getInvalidValue() + ")");
+        }
+        return messages;
+    }
+
+    @Test
+    public void vurlpOptionalCombinators() {
+        VurlpOptional<TestPojo> valid = this.vurlp.fromParams("?simpleString=abc&floatObject=2");
+        VurlpOptional<TestPojo> invalid = this.vurlp.fromParams("?simpleString=abc");
+
+        assertThat(valid.getViolations().isEmpty(), is(true));
+        assertThat(valid.map(TestPojo::getSimpleString).get(), is("abc"));
+        assertThat(valid.flatMap(pojo -> this.vurlp.toParams(pojo)).get(), is("?simpleString=abc&floatObject=2.0"));
+        assertThat(valid.filter(pojo -> pojo.getFloatObject() > 1).isValid(), is(true));
+        assertThat(valid.filter(pojo -> pojo.getFloatObject() > 2).isValid(), is(false));
+        assertThat(valid.filter(pojo -> pojo.getFloatObject() > 2).getViolations().isEmpty(), is(true));
+
+        assertThat(invalid.map(TestPojo::getSimpleString) == (Object) invalid, is(true));
+        assertThat(invalid.flatMap(pojo -> this.vurlp.toParams(pojo)).getViolationsAsString(),
+                is("'floatObject' must not be null"));
+        assertThat(invalid.filter(pojo -> true) == invalid, is(true));
+
+        List<String> calls = new ArrayList<>();
+        valid.ifValidOrElse(pojo -> calls.add("valid"), violations -> calls.add("invalid"));
+        invalid.ifValidOrElse(pojo -> calls.add("valid"), violations -> calls.add("invalid " + violations.size()));
+        assertThat(calls, is(Arrays.asList("valid", "invalid 1")));
+
+        try {
+            invalid.getViolations().clear();
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertThat(invalid.getViolations().size(), is(1));
+        }
+    }
+
+    @Test
+    public void fromParamsBatch() {
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            queries.add(i % 7 == 0 ? "?simpleString=s" + i
+                    : i % 11 == 0 ? "?simpleString=%zz"
+                    : "?simpleString=s" + i + "&floatObject=" + (i + 1));
+        }
+
+        BatchResult<TestPojo> sequential = this.vurlp.fromParamsBatch(queries);
+        BatchResult<TestPojo> parallel = this.vurlp.fromParamsBatch(queries, true);
+        BatchResult<TestPojo> streamed = this.vurlp.fromParamsBatch(queries.stream());
+
+        assertThat(sequential.size(), is(2000));
+        for (BatchResult<TestPojo> result : Arrays.asList(sequential, parallel, streamed)) {
+            assertThat(result.size(), is(queries.size()));
+            assertThat(result.getValidBitmap(), is(sequential.getValidBitmap()));
+            for (int i = 0; i < queries.size(); i++) {
+                VurlpOptional<TestPojo> expected = this.vurlp.fromParams(queries.get(i));
+                assertThat(result.isValid(i), is(expected.isValid()));
+                if (expected.isValid()) {
+                    assertThat(result.get(i).getSimpleString(), is(expected.get().getSimpleString()));
+                    assertThat(result.get(i).getFloatObject(), is(expected.get().getFloatObject()));
+                    assertThat(result.getViolations(i).isEmpty(), is(true));
+                } else {
+                    assertThat(result.toOptional(i).getViolationsAsString(), is(expected.getViolationsAsString()));
+                }
+            }
+        }
+        assertThat(sequential.getValidObjects().size(), is(sequential.getValidCount()));
+        assertThat(sequential.getValidObjects().get(0).getSimpleString(), is("s1"));
+        assertThat(sequential.getValidCount(),
+                is((int) queries.stream().filter(query -> query.contains("float")).count()));
+
+        try {
+            sequential.get(0);
+            fail();
+        } catch (NoSuchElementException e) {
+            assertThat(sequential.getViolations(0).size(), is(1));
+        }
+    }
+
+    @Test
+    public void processQueryLog() throws IOException {
+        String[] lines = {
+                "https://example.com/search?simpleString=a+b&floatObject=2#top",
+                "/search?simpleString=c&floatObject=0\r",
+                "simpleString=c&floatObject=3",
+                "",
+                "https://example.com/search",
+                "?simpleString=%zz&floatObject=2",
+                "?floatObject=abc&flag"
+        };
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < 8_000 * lines.length; i++) {
+            log.append(lines[i % lines.length]).append('\n');
+        }
+        Path file = Files.createTempFile("queries", ".log");
+        try {
+            Files.write(file, log.toString().getBytes(StandardCharsets.UTF_8));
+            QueryLogStats stats = new QueryLogProcessor<>(this.vurlp).process(file);
+
+            long cycles = 8_000;
+            assertThat(Files.size(file) > (1 << 20), is(true));
+            assertThat(stats.getLines(), is(cycles * 6));
+            assertThat(stats.getValidLines(), is(cycles * 2));
+            assertThat(stats.getUnconvertibleLines(), is(cycles));
+            assertThat(stats.getInvalidLines(), is(cycles * 3));
+            assertThat(stats.getInvalidCounts().keySet(), is(new LinkedHashSet<>(Arrays.asList(
+                    "floatObject @Min", "floatObject @NotNull", "simpleString @UrlEncoded"))));
+
+            assertThat(stats.getParameterNames(),
+                    is(new TreeSet<>(Arrays.asList("flag", "floatObject", "simpleString"))));
+            assertThat(stats.getHistogram("simpleString").get("a b"), is(cycles));
+            assertThat(stats.getHistogram("simpleString").get("%zz"), is(cycles));
+            assertThat(stats.getHistogram("flag").get(""), is(cycles));
+            assertThat(stats.getTopValues("simpleString", 1).get(0).getKey(), is("c"));
+            assertThat(stats.getTopValues("floatObject", 5).size(), is(4));
+            assertThat(stats.getTopValues("floatObject", 5).get(0).getValue(), is(cycles * 2));
+            assertThat(stats.getOtherValues("floatObject"), is(0L));
+
+            QueryLogStats capped = new QueryLogProcessor<>(this.vurlp, StandardCharsets.UTF_8,
+                    ForkJoinPool.commonPool(), 2).process(file);
+            assertThat(capped.getParameterNames().size(), is(2));
+            assertThat(capped.getLines(), is(stats.getLines()));
+        } finally {
+            Files.delete(file);
+        }
+
+        Path empty = Files.createTempFile("queries", ".log");
+        try {
+            assertThat(new QueryLogProcessor<>(this.vurlp).process(empty).getLines(), is(0L));
+        } finally {
+            Files.delete(empty);
+        }
+
+        try {
+            new QueryLogProcessor<>(this.vurlp, StandardCharsets.UTF_16, ForkJoinPool.commonPool(), 10);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("UTF-16"));
+        }
+    }
+
+    @Test
+    public void processQueryLogKeepsFrequentValuesPastTheCap() throws IOException {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < 40_000; i++) {
+            log.append("?simpleString=unique").append(i).append("&floatObject=2\n");
+        }
+        for (int i = 0; i < 20_000; i++) {
+            log.append("?simpleString=").append(i % 4 == 0 ? "rare" : "frequent").append("&floatObject=2\n");
+        }
+        Path file = Files.createTempFile("queries", ".log");
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            Files.write(file, log.toString().getBytes(StandardCharsets.UTF_8));
+            assertThat(Files.size(file) > (2 << 20), is(true));
+            int cap = 100;
+            for (ForkJoinPool pool : Arrays.asList(single, ForkJoinPool.commonPool())) {
+                QueryLogStats stats = new QueryLogProcessor<>(this.vurlp, StandardCharsets.UTF_8, pool, cap)
+                        .process(file);
+                Map<String, Long> histogram = stats.getHistogram("simpleString");
+                long others = stats.getOtherValues("simpleString");
+                long maxError = others / (cap + 1);
+                assertThat(histogram.size() <= cap, is(true));
+                assertThat(stats.getTopValues("simpleString", 2).get(0).getKey(), is("frequent"));
+                assertThat(stats.getTopValues("simpleString", 2).get(1).getKey(), is("rare"));
+                assertThat(histogram.get("frequent") >= 15_000 - maxError, is(true));
+                assertThat(histogram.get("frequent") <= 15_000, is(true));
+                assertThat(histogram.get("rare") >= 5_000 - maxError, is(true));
+                long kept = 0;
+                for (long count : histogram.values()) {
+                    kept += count;
+                }
+                assertThat(kept + others, is(60_000L));
+                assertThat(stats.getHistogram("floatObject").get("2"), is(60_000L));
+            }
+        } finally {
+            single.shutdown();
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void readMappedQueries() throws IOException {
+        StringBuilder longValue = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            longValue.append("long");
+        }
+        String[] lines = {
+                "https://example.com/search?simpleString=a+b&floatObject=2",
+                "?simpleString=" + longValue + "&floatObject=3\r",
+                "",
+                "/search?floatObject=0",
+                "simpleString=%zz&floatObject=2",
+                "floatObject=abc",
+                "simpleString=last&floatObject=4"
+        };
+        Path file = Files.createTempFile("urls", ".txt");
+        try {
+            Files.write(file, String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+            for (int windowSize : new int[]{16, 64, 1 << 20}) {
+                List<String> valid = new ArrayList<>();
+                List<MappedQueryReader.InvalidLine> invalid = new ArrayList<>();
+                long validLines = new MappedQueryReader<>(this.vurlp, StandardCharsets.UTF_8, windowSize)
+                        .read(file, pojo -> valid.add(pojo.getSimpleString()), invalid::add);
+
+                assertThat(validLines, is(3L));
+                assertThat(valid, is(Arrays.asList("a b", longValue.toString(), "last")));
+                assertThat(invalid.size(), is(3));
+                for (MappedQueryReader.InvalidLine line : invalid) {
+                    String content = line.getLine();
+                    long offset = String.join("\n", lines).indexOf(content);
+                    assertThat(line.getOffset(), is(offset));
+                }
+                assertThat(invalid.get(0).getLine(), is(lines[3]));
+                assertThat(invalid.get(0).getViolations().iterator().next().getMessage(),
+                        is("'floatObject' must be >=1"));
+                assertThat(invalid.get(1).getViolations().iterator().next().getPropertyPath().toString(),
+                        is("simpleString"));
+                assertThat(invalid.get(2).getViolations().isEmpty(), is(true));
+                assertThat(invalid.get(2).getConversionError() instanceof NumberFormatException, is(true));
+            }
+        } finally {
+            Files.delete(file);
+        }
+
+        try {
+            new MappedQueryReader<>(this.vurlp, StandardCharsets.UTF_16LE, 1 << 20);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("UTF-16LE"));
+        }
+    }
+
     @Test
     public void toParamsValid() {
         TestPojo validPojo = new TestPojo("someString", 1.0F);
@@ -124,6 +1068,35 @@ public class VurlpTest {
         assertThat(paramsWithEncoding.get(), is("?simpleString=some+Stri%3Dng&floatObject=1.0"));
     }
     
+    @Test
+    public void toParamsBindingPlanMatchesGson() {
+        Vurlp<TypesPojo> withPlan = new Vurlp<>(TypesPojo.class);
+        Vurlp<TypesPojo> withGson = new Vurlp<>(TypesPojo.class, new Gson(), true);
+        String[] queries = {
+                "?offset=20&ratio=0.5&active=true&letter=x&price=9.99&sort=desc&q=red+shoes&ignored=nope",
+                "?page=-3&q=&letter=%26",
+                ""
+        };
+
+        for (String query : queries) {
+            TypesPojo typesPojo = withPlan.fromParams(query).get();
+            assertThat(withPlan.toParams(typesPojo).get(), is(withGson.toParams(typesPojo).get()));
+        }
+
+        assertThat(withPlan.toParams(withPlan.fromParams(queries[0]).get()).get(),
+                is("?page=1&offset=20&ratio=0.5&active=true&letter=x&price=9.99&sort=desc&q=red+shoes"));
+    }
+
+    @Test
+    public void toParamsEncodingMatchesUrlEncoder() throws Exception {
+        String[] values = {"plain-id_1.2*", "a b+c&d=e", "über €", "\uD83D\uDE00 smile", "lone \uD83D surrogate", "~!'()"};
+
+        for (String value : values) {
+            String params = this.vurlp.toParams(new TestPojo(value, 1.0F)).get();
+            assertThat(params, is("?simpleString=" + java.net.URLEncoder.encode(value, "UTF-8") + "&floatObject=1.0"));
+        }
+    }
+
     @Test
     public void toParamsParsingTest() {
         TestPojo withNull = new TestPojo(null, 1.0F);
@@ -135,6 +1108,45 @@ public class VurlpTest {
         assertThat(this.vurlp.toParams(withEmpty).get(), is("?simpleString&floatObject=1.0"));
     }
 
+    @Test
+    public void toParamsToAppendableAndByteBuffer() {
+        TestPojo testPojo = new TestPojo("Grüße aus München", 1.0F);
+        String expected = this.vurlp.toParams(testPojo).get();
+
+        StringBuilder url = new StringBuilder("https://example.com/search");
+        assertThat(this.vurlp.toParams(testPojo, url).get(), is(expected.length()));
+        assertThat(url.toString(), is("https://example.com/search" + expected));
+        assertThat(this.vurlp.toParams(testPojo, new StringBuilder()),
+                is(sameInstance(this.vurlp.toParams(testPojo, new StringBuilder()))));
+
+        StringWriter writer = new StringWriter();
+        assertThat(this.vurlp.toParams(testPojo, false, writer).get(), is(expected.length() - 1));
+        assertThat(writer.toString(), is(expected.substring(1)));
+
+        ByteBuffer bytes = ByteBuffer.allocate(expected.length() + 4);
+        assertThat(this.vurlp.toParams(testPojo, false, bytes).get(), is(expected.length() - 1));
+        assertThat(new String(bytes.array(), 0, bytes.position(), StandardCharsets.US_ASCII),
+                is(expected.substring(1)));
+
+        Vurlp<TestPojo> unencoded = new Vurlp<>(TestPojo.class, false);
+        ByteBuffer utf8 = ByteBuffer.allocate(64);
+        int size = unencoded.toParams(testPojo, utf8).get();
+        assertThat(new String(utf8.array(), 0, size, StandardCharsets.UTF_8), is(unencoded.toParams(testPojo).get()));
+
+        ByteBuffer tooSmall = ByteBuffer.allocate(expected.length() - 1);
+        try {
+            this.vurlp.toParams(testPojo, tooSmall);
+            fail();
+        } catch (BufferOverflowException e) {
+            assertThat(tooSmall.position(), is(0));
+        }
+
+        StringBuilder untouched = new StringBuilder();
+        VurlpOptional<Integer> invalid = this.vurlp.toParams(new TestPojo("anotherString"), untouched);
+        assertThat(invalid.getViolationsAsString(), containsString("'floatObject' must not be null"));
+        assertThat(untouched.length(), is(0));
+    }
+
     @Test
     public void toParamsInvalid() {
         TestPojo invalidPojo = new TestPojo("anotherString");
@@ -145,4 +1157,37 @@ public class VurlpTest {
         assertThat(params.getViolationsAsString(), containsString("'floatObject' must not be null"));
     }
 
+    /**
+     * Loads its own copy of the classes in the package of {@code origin}, e.g. of the library's classes in
+     * {@code core} and so of its static state, and everything else through the test's class loader.
+     */
+    private static final class IsolatedPackageClassLoader extends URLClassLoader {
+
+        private final String packagePrefix;
+
+        private IsolatedPackageClassLoader(Class<?> origin) {
+            super(new URL[]{origin.getProtectionDomain().getCodeSource().getLocation()},
+                    VurlpTest.class.getClassLoader());
+            this.packagePrefix = origin.getPackage().getName() + '.';
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(this.packagePrefix)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded == null) {
+                    loaded = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(loaded);
+                }
+                return loaded;
+            }
+        }
+
+    }
+
 }